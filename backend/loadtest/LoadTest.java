@@ -0,0 +1,265 @@
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * End-to-end load harness for a running STDE backend (ideally started with the "loadtest" profile,
+ * so OpenAI and Google Drive are local fakes).
+ *
+ * Sets up one teacher, one classroom and N students, then runs upload -> submit -> evaluate (poll the
+ * job) -> teacher dashboard for every student with the given concurrency, and prints throughput and
+ * latency percentiles per step.
+ *
+ * Run with the JDK single-file launcher, no build needed:
+ *   java backend/loadtest/LoadTest.java --students 20 --concurrency 10 --iterations 1
+ *
+ * Options: --base-url (http://localhost:8080), --students (10), --iterations (1, evaluations per student;
+ * mind the hourly quota), --concurrency (10), --doc-kb (20), --duplicate-ratio (0.0, share of uploads
+ * reusing one shared text, to exercise the evaluation cache), --poll-ms (500).
+ */
+public class LoadTest {
+
+    private static final String PASSWORD = "LoadTest#12345";
+    private static final List<String> STEPS = List.of("upload", "submit", "evaluate", "dashboard", "flow");
+
+    private final String baseUrl;
+    private final int students;
+    private final int iterations;
+    private final int concurrency;
+    private final int docKb;
+    private final double duplicateRatio;
+    private final long pollMillis;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final Map<String, List<Long>> latencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> errors = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> errorTypes = new ConcurrentHashMap<>();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        new LoadTest(options).run();
+    }
+
+    private LoadTest(Map<String, String> options) {
+        this.baseUrl = options.getOrDefault("base-url", "http://localhost:8080").replaceAll("/$", "");
+        this.students = Integer.parseInt(options.getOrDefault("students", "10"));
+        this.iterations = Integer.parseInt(options.getOrDefault("iterations", "1"));
+        this.concurrency = Integer.parseInt(options.getOrDefault("concurrency", "10"));
+        this.docKb = Integer.parseInt(options.getOrDefault("doc-kb", "20"));
+        this.duplicateRatio = Double.parseDouble(options.getOrDefault("duplicate-ratio", "0.0"));
+        this.pollMillis = Long.parseLong(options.getOrDefault("poll-ms", "500"));
+        for (String step : STEPS) {
+            latencies.put(step, Collections.synchronizedList(new ArrayList<>()));
+            errors.put(step, new AtomicInteger());
+        }
+    }
+
+    private void run() throws Exception {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        System.out.printf("Setting up run %s: 1 teacher, %d students against %s%n", runId, students, baseUrl);
+
+        String teacherToken = registerAndLogin("lt-" + runId + "-teacher@example.com", "TEACHER");
+        String classCode = "LT" + runId.toUpperCase();
+        String classroom = request("POST", "/api/classrooms", teacherToken,
+                "{\"name\":\"Load Test " + runId + "\",\"section\":\"LT\",\"classCode\":\"" + classCode + "\"}");
+        String classId = jsonString(classroom, "id");
+
+        List<String> studentTokens = new ArrayList<>();
+        for (int i = 0; i < students; i++) {
+            String token = registerAndLogin("lt-" + runId + "-student" + i + "@example.com", "STUDENT");
+            request("POST", "/api/classrooms/join", token, "{\"classCode\":\"" + classCode + "\"}");
+            studentTokens.add(token);
+        }
+
+        String sharedText = documentText("shared");
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        List<Future<?>> flows = new ArrayList<>();
+        long start = System.nanoTime();
+
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            for (int i = 0; i < students; i++) {
+                String token = studentTokens.get(i);
+                String text = ThreadLocalRandom.current().nextDouble() < duplicateRatio
+                        ? sharedText
+                        : documentText(runId + "-" + i + "-" + iteration);
+                flows.add(pool.submit(() -> flow(token, teacherToken, classId, text)));
+            }
+        }
+        for (Future<?> flow : flows) {
+            flow.get();
+        }
+        pool.shutdown();
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        report(flows.size(), seconds);
+    }
+
+    private void flow(String studentToken, String teacherToken, String classId, String text) {
+        long flowStart = System.nanoTime();
+        try {
+            String uploaded = timed("upload", () -> multipartUpload(studentToken, classId, text));
+            String documentId = jsonString(uploaded, "id");
+
+            timed("submit", () -> request("POST", "/api/documents/" + documentId + "/submit", studentToken, null));
+
+            timed("evaluate", () -> {
+                String job = request("POST", "/api/evaluations/evaluate/" + documentId, studentToken, null);
+                String jobId = jsonString(job, "jobId");
+                while ("PROCESSING".equals(jsonString(job, "status"))) {
+                    Thread.sleep(pollMillis);
+                    job = request("GET", "/api/evaluations/jobs/" + jobId, studentToken, null);
+                }
+                if ("FAILED".equals(jsonString(job, "status"))) {
+                    String type = jsonString(job, "errorType");
+                    errorTypes.computeIfAbsent(type != null ? type : "UNKNOWN", k -> new AtomicInteger()).incrementAndGet();
+                    throw new IllegalStateException("Evaluation failed: " + jsonString(job, "error"));
+                }
+                return job;
+            });
+
+            timed("dashboard", () -> request("GET", "/api/dashboard/teacher", teacherToken, null));
+            latencies.get("flow").add((System.nanoTime() - flowStart) / 1_000_000);
+        } catch (Exception e) {
+            errors.get("flow").incrementAndGet();
+        }
+    }
+
+    private String registerAndLogin(String email, String userType) throws Exception {
+        request("POST", "/api/auth/register", null, "{\"firstname\":\"Load\",\"lastname\":\"Test\",\"email\":\"" + email
+                + "\",\"password\":\"" + PASSWORD + "\",\"userType\":\"" + userType + "\"}");
+        String login = request("POST", "/api/auth/login", null,
+                "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}");
+        return jsonString(login, "token");
+    }
+
+    private String multipartUpload(String token, String classId, String text) throws Exception {
+        String boundary = "----stde-load-" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        String filePart = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"test-plan.txt\"\r\n"
+                + "Content-Type: text/plain\r\n\r\n";
+        body.write(filePart.getBytes(StandardCharsets.UTF_8));
+        body.write(text.getBytes(StandardCharsets.UTF_8));
+        String classPart = "\r\n--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"classId\"\r\n\r\n" + classId
+                + "\r\n--" + boundary + "--\r\n";
+        body.write(classPart.getBytes(StandardCharsets.UTF_8));
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/documents/upload"))
+                .timeout(Duration.ofMinutes(2))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+        return send(request);
+    }
+
+    private String request(String method, String path, String token, String json) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofMinutes(2))
+                .method(method, json == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(json));
+        if (json != null) builder.header("Content-Type", "application/json");
+        if (token != null) builder.header("Authorization", "Bearer " + token);
+        return send(builder.build());
+    }
+
+    private String send(HttpRequest request) throws Exception {
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(request.method() + " " + request.uri().getPath()
+                    + " -> " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private <T> T timed(String step, Step<T> action) throws Exception {
+        long start = System.nanoTime();
+        try {
+            T result = action.run();
+            latencies.get(step).add((System.nanoTime() - start) / 1_000_000);
+            return result;
+        } catch (Exception e) {
+            errors.get(step).incrementAndGet();
+            throw e;
+        }
+    }
+
+    // A plausible test document: numbered sections and test cases, padded to --doc-kb
+    private String documentText(String seed) {
+        StringBuilder text = new StringBuilder("SOFTWARE TEST PLAN\nDocument " + seed + "\n\n1. Introduction\n"
+                + "This plan covers functional testing of the login and checkout modules.\n\n2. Test Cases\n");
+        int testCase = 1;
+        while (text.length() < docKb * 1024) {
+            text.append("TC-").append(String.format("%03d", testCase)).append(": Verify scenario ").append(testCase)
+                    .append(" for ").append(seed).append('\n')
+                    .append("Preconditions: user is registered. Steps: open page, enter data, submit.\n")
+                    .append("Expected result: the system responds within 2 seconds with a confirmation.\n\n");
+            testCase++;
+        }
+        return text.toString();
+    }
+
+    private void report(int flowCount, double seconds) {
+        int failedFlows = errors.get("flow").get();
+        System.out.println();
+        System.out.printf("Flows: %d (%d failed) in %.1fs -> %.2f flows/s%n",
+                flowCount, failedFlows, seconds, (flowCount - failedFlows) / seconds);
+        System.out.printf("%-10s %7s %7s %8s %8s %8s %8s %8s%n", "step", "ok", "errors", "p50", "p90", "p99", "max", "mean");
+        for (String step : STEPS) {
+            List<Long> values = new ArrayList<>(latencies.get(step));
+            Collections.sort(values);
+            double mean = values.stream().mapToLong(Long::longValue).average().orElse(0);
+            System.out.printf("%-10s %7d %7d %8d %8d %8d %8d %8.0f%n", step, values.size(), errors.get(step).get(),
+                    percentile(values, 50), percentile(values, 90), percentile(values, 99),
+                    values.isEmpty() ? 0 : values.get(values.size() - 1), mean);
+        }
+        if (!errorTypes.isEmpty()) {
+            System.out.println("Evaluation failures by type: " + errorTypes);
+        }
+        System.out.println("(latencies in ms; admin stats: /api/admin/llm-usage, /api/admin/llm-resilience, /api/admin/db-pool)");
+    }
+
+    private static long percentile(List<Long> sorted, int percentile) {
+        if (sorted.isEmpty()) return 0;
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    // First "key":"value" or "key":number in a JSON body; enough for the fields this harness reads
+    private static String jsonString(String json, String key) {
+        Matcher matcher = Pattern.compile("\"" + Pattern.quote(key) + "\"\\s*:\\s*(?:\"([^\"]*)\"|([-\\w.]+))").matcher(json);
+        if (!matcher.find()) return null;
+        return matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+    }
+
+    @FunctionalInterface
+    private interface Step<T> {
+        T run() throws Exception;
+    }
+}
@@ -0,0 +1,61 @@
+package citu.stde.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+@Configuration
+public class ConnectionPoolConfig {
+
+    private static final Pattern UUID_SEGMENT =
+            Pattern.compile("/[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+    // Plug our tracker into Hikari before the pool starts
+    @Bean
+    public static BeanPostProcessor hikariMetricsPostProcessor(ObjectProvider<ConnectionPoolMetrics> metrics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    hikari.setMetricsTrackerFactory(metrics.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Runs before Spring Security so the JWT user lookup is attributed to the endpoint too
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> connectionPoolEndpointFilter() {
+        OncePerRequestFilter filter = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain filterChain) throws ServletException, IOException {
+                // "/api/documents/3f2a..." -> "/api/documents/{id}" keeps one bucket per endpoint
+                String path = UUID_SEGMENT.matcher(request.getRequestURI()).replaceAll("/{id}");
+                ConnectionPoolMetrics.bindEndpoint(request.getMethod() + " " + path);
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    ConnectionPoolMetrics.clearEndpoint();
+                }
+            }
+        };
+
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,128 @@
+package citu.stde.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hikari metrics tracker that attributes JDBC connection hold time to the endpoint
+ * (or background job) that borrowed the connection.
+ *
+ * Hikari reports borrow and release on the borrowing thread, so a thread-local label set by
+ * {@link ConnectionPoolConfig}'s request filter is enough to group the numbers per endpoint.
+ */
+@Component
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+    private static final String UNLABELLED = "background";
+    private static final ThreadLocal<String> CURRENT_ENDPOINT = new ThreadLocal<>();
+    // Connections currently borrowed by this thread
+    private static final ThreadLocal<int[]> HELD_CONNECTIONS = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final Map<String, EndpointStats> statsByEndpoint = new ConcurrentHashMap<>();
+    private volatile PoolStats poolStats;
+
+    public static void bindEndpoint(String endpoint) {
+        CURRENT_ENDPOINT.set(endpoint);
+    }
+
+    public static void clearEndpoint() {
+        CURRENT_ENDPOINT.remove();
+    }
+
+    /**
+     * Call right before a remote call (Drive, OpenAI). Counts a violation if the current
+     * thread still has a pooled connection checked out.
+     */
+    public void checkNoConnectionHeld(String remoteCall) {
+        if (HELD_CONNECTIONS.get()[0] > 0) {
+            currentStats().remoteCallsWhileHolding.increment();
+            System.err.println("Warning: DB connection held during remote call '" + remoteCall + "' on " + currentEndpoint());
+        }
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                HELD_CONNECTIONS.get()[0]++;
+                EndpointStats stats = currentStats();
+                stats.borrows.increment();
+                stats.totalWaitMicros.add(TimeUnit.NANOSECONDS.toMicros(elapsedAcquiredNanos));
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                int[] held = HELD_CONNECTIONS.get();
+                if (held[0] > 0) held[0]--;
+                EndpointStats stats = currentStats();
+                stats.totalHoldMillis.add(elapsedBorrowedMillis);
+                stats.maxHoldMillis.accumulate(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                currentStats().timeouts.increment();
+            }
+        };
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> pool = new LinkedHashMap<>();
+        PoolStats stats = poolStats;
+        if (stats != null) {
+            pool.put("active", stats.getActiveConnections());
+            pool.put("idle", stats.getIdleConnections());
+            pool.put("total", stats.getTotalConnections());
+            pool.put("pendingThreads", stats.getPendingThreads());
+            pool.put("max", stats.getMaxConnections());
+        }
+
+        Map<String, Object> endpoints = new TreeMap<>();
+        statsByEndpoint.forEach((endpoint, s) -> endpoints.put(endpoint, s.toMap()));
+
+        return Map.of("pool", pool, "endpoints", endpoints);
+    }
+
+    private EndpointStats currentStats() {
+        return statsByEndpoint.computeIfAbsent(currentEndpoint(), key -> new EndpointStats());
+    }
+
+    private static String currentEndpoint() {
+        String endpoint = CURRENT_ENDPOINT.get();
+        return endpoint != null ? endpoint : UNLABELLED;
+    }
+
+    private static class EndpointStats {
+        private final LongAdder borrows = new LongAdder();
+        private final LongAdder totalWaitMicros = new LongAdder();
+        private final LongAdder totalHoldMillis = new LongAdder();
+        private final LongAccumulator maxHoldMillis = new LongAccumulator(Long::max, 0);
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder remoteCallsWhileHolding = new LongAdder();
+
+        private Map<String, Object> toMap() {
+            long count = borrows.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("borrows", count);
+            map.put("avgHoldMillis", count == 0 ? 0 : totalHoldMillis.sum() / count);
+            map.put("maxHoldMillis", maxHoldMillis.get());
+            map.put("totalHoldMillis", totalHoldMillis.sum());
+            map.put("avgWaitMicros", count == 0 ? 0 : totalWaitMicros.sum() / count);
+            map.put("timeouts", timeouts.sum());
+            map.put("remoteCallsWhileHolding", remoteCallsWhileHolding.sum());
+            return map;
+        }
+    }
+}
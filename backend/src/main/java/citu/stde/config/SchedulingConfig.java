@@ -0,0 +1,10 @@
+package citu.stde.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background flushes (LLM usage rollups, etc.)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,12 +1,31 @@
 package citu.stde.controller;
 
+import citu.stde.config.ConnectionPoolMetrics;
 import citu.stde.entity.User;
+import citu.stde.service.ActivityLogService;
+import citu.stde.service.ActivityLogWriter;
 import citu.stde.service.AdminService;
+import citu.stde.service.ChunkedEvaluationService;
+import citu.stde.service.EvaluationCacheService;
+import citu.stde.service.ExtractedTextStore;
+import citu.stde.service.DriveBlobCache;
+import citu.stde.service.DriveCleanupService;
+import citu.stde.service.DriveClientProvider;
+import citu.stde.service.EvaluationQuotaService;
+import citu.stde.service.HedgedRequestService;
+import citu.stde.service.PromptCompactor;
+import citu.stde.service.LlmResilience;
+import citu.stde.service.LlmUsageTracker;
+import citu.stde.service.SpeculativeEvaluationService;
+import citu.stde.service.TestDocumentClassifier;
 import citu.stde.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Map;
 
 @RestController
@@ -16,6 +35,22 @@ public class AdminController {
 
     private final AdminService adminService;
     private final UserService userService;
+    private final ConnectionPoolMetrics connectionPoolMetrics;
+    private final EvaluationCacheService evaluationCacheService;
+    private final ExtractedTextStore extractedTextStore;
+    private final LlmUsageTracker llmUsageTracker;
+    private final LlmResilience llmResilience;
+    private final TestDocumentClassifier testDocumentClassifier;
+    private final SpeculativeEvaluationService speculativeEvaluationService;
+    private final HedgedRequestService hedgedRequestService;
+    private final ChunkedEvaluationService chunkedEvaluationService;
+    private final PromptCompactor promptCompactor;
+    private final EvaluationQuotaService evaluationQuotaService;
+    private final DriveClientProvider driveClientProvider;
+    private final DriveBlobCache driveBlobCache;
+    private final ActivityLogWriter activityLogWriter;
+    private final ActivityLogService activityLogService;
+    private final DriveCleanupService driveCleanupService;
 
     @GetMapping("/users")
     public ResponseEntity<?> getAllUsers() {
@@ -29,13 +64,134 @@ public class AdminController {
         return ResponseEntity.ok(userService.updateUserRoleAndStatus(userId, type, active));
     }
 
+    // Newest first, one keyset page at a time; from/to are ISO-8601 instants, [from, to)
     @GetMapping("/logs")
-    public ResponseEntity<?> getLogs() {
-        return ResponseEntity.ok(adminService.getAllLogs());
+    public ResponseEntity<?> getLogs(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(activityLogService.getLogs(from, to, action, user, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Event counts per action in UTC buckets; defaults to the last 24 hours (HOUR) or 30 days (DAY)
+    @GetMapping("/logs/rollups")
+    public ResponseEntity<?> getLogRollups(
+            @RequestParam(defaultValue = ActivityLogService.HOUR) String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String action) {
+        String normalized = granularity.toUpperCase();
+        if (!normalized.equals(ActivityLogService.HOUR) && !normalized.equals(ActivityLogService.DAY)) {
+            return ResponseEntity.badRequest().body("granularity must be HOUR or DAY");
+        }
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from
+                : end.minus(normalized.equals(ActivityLogService.HOUR) ? Duration.ofHours(24) : Duration.ofDays(30));
+        return ResponseEntity.ok(activityLogService.getRollups(normalized, start, end, action));
     }
 
     @GetMapping("/health")
     public ResponseEntity<?> getHealth() {
         return ResponseEntity.ok(adminService.getSystemHealth());
     }
-}
\ No newline at end of file
+
+    // JDBC connection hold time per endpoint / background job
+    @GetMapping("/db-pool")
+    public ResponseEntity<?> getConnectionPoolStats() {
+        return ResponseEntity.ok(connectionPoolMetrics.snapshot());
+    }
+
+    @GetMapping("/evaluation-cache")
+    public ResponseEntity<?> getEvaluationCacheStats() {
+        return ResponseEntity.ok(evaluationCacheService.getStats());
+    }
+
+    @GetMapping("/text-store")
+    public ResponseEntity<?> getExtractedTextStoreStats() {
+        return ResponseEntity.ok(extractedTextStore.getStats());
+    }
+
+    // Token usage, latency and error counts per USER / CLASSROOM / ENDPOINT over the last N hours
+    @GetMapping("/llm-usage")
+    public ResponseEntity<?> getLlmUsage(@RequestParam(defaultValue = LlmUsageTracker.ENDPOINT) String dimension,
+                                         @RequestParam(defaultValue = "24") int hours) {
+        String normalized = dimension.toUpperCase();
+        if (!normalized.equals(LlmUsageTracker.USER) && !normalized.equals(LlmUsageTracker.CLASSROOM)
+                && !normalized.equals(LlmUsageTracker.ENDPOINT)) {
+            return ResponseEntity.badRequest().body("dimension must be USER, CLASSROOM or ENDPOINT");
+        }
+        return ResponseEntity.ok(llmUsageTracker.getUsage(normalized, Math.max(1, hours)));
+    }
+
+    // Circuit breaker state, adaptive concurrency limit and retry counters for OpenAI calls
+    @GetMapping("/llm-resilience")
+    public ResponseEntity<?> getLlmResilienceStats() {
+        return ResponseEntity.ok(llmResilience.getStats());
+    }
+
+    // How often the local pre-screen decided without the LLM validation call
+    @GetMapping("/prescreen")
+    public ResponseEntity<?> getPrescreenStats() {
+        return ResponseEntity.ok(testDocumentClassifier.getStats());
+    }
+
+    // Validation + scoring run in parallel: how often the speculative scoring call was thrown away
+    @GetMapping("/speculative-scoring")
+    public ResponseEntity<?> getSpeculativeScoringStats() {
+        return ResponseEntity.ok(speculativeEvaluationService.getStats());
+    }
+
+    @GetMapping("/hedging")
+    public ResponseEntity<?> getHedgingStats() {
+        return ResponseEntity.ok(hedgedRequestService.getStats());
+    }
+
+    // Long documents scored section by section: how many, and into how many sections
+    @GetMapping("/chunking")
+    public ResponseEntity<?> getChunkingStats() {
+        return ResponseEntity.ok(chunkedEvaluationService.getStats());
+    }
+
+    // Characters / estimated tokens removed from extracted text before it reaches a prompt
+    @GetMapping("/compaction")
+    public ResponseEntity<?> getCompactionStats() {
+        return ResponseEntity.ok(promptCompactor.getStats());
+    }
+
+    // In-memory quota windows: grants, denials, CAS contention and writes not yet persisted
+    @GetMapping("/quota")
+    public ResponseEntity<?> getQuotaStats() {
+        return ResponseEntity.ok(evaluationQuotaService.getStats());
+    }
+
+    // Drive client cache hit ratio and shared transport size
+    @GetMapping("/drive-clients")
+    public ResponseEntity<?> getDriveClientStats() {
+        return ResponseEntity.ok(driveClientProvider.getStats());
+    }
+
+    // Drive downloads served from the local blob cache: hit ratio and bytes not fetched again
+    @GetMapping("/drive-blob-cache")
+    public ResponseEntity<?> getDriveBlobCacheStats() {
+        return ResponseEntity.ok(driveBlobCache.getStats());
+    }
+
+    // Activity log ring buffer: queue depth, batch sizes and events dropped on overflow
+    @GetMapping("/activity-log-writer")
+    public ResponseEntity<?> getActivityLogWriterStats() {
+        return ResponseEntity.ok(activityLogWriter.getStats());
+    }
+
+    // Background Drive deletes (classroom folders): pending, retried and given-up counts
+    @GetMapping("/drive-cleanup")
+    public ResponseEntity<?> getDriveCleanupStats() {
+        return ResponseEntity.ok(driveCleanupService.getStats());
+    }
+}
@@ -6,6 +6,7 @@ import citu.stde.repository.UserRepository;
 import citu.stde.service.ClassroomService;
 import citu.stde.repository.ClassroomRepository;
 import citu.stde.dto.ClassroomDTO;
+import citu.stde.dto.CursorPage;
 
 import lombok.RequiredArgsConstructor;
 
@@ -35,24 +36,17 @@ public class ClassroomController {
     }
 
     @GetMapping("/teacher")
-    public ResponseEntity<List<ClassroomDTO>> getTeacherClassrooms(Authentication authentication) {
+    public ResponseEntity<?> getTeacherClassrooms(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication) {
         UUID teacherId = getUserId(authentication);
-        List<Classroom> classrooms = classroomRepository.findByTeacherId(teacherId);
-        
-        List<ClassroomDTO> dtos = classrooms.stream()
-            .map(c -> ClassroomDTO.builder()
-                .id(c.getId())
-                .name(c.getName())
-                .section(c.getSection())
-                .classCode(c.getClassCode())
-                .teacherId(c.getTeacherId())
-                .driveFolderId(c.getDriveFolderId())
-                .createdAt(c.getCreatedAt())
-                .studentCount(c.getStudents() != null ? c.getStudents().size() : 0)
-                .build())
-            .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(dtos);
+        try {
+            CursorPage<ClassroomDTO> page = classroomService.getTeacherClassrooms(teacherId, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     // Pass driveFolderId to service
@@ -1,13 +1,11 @@
 package citu.stde.controller;
 
 import citu.stde.dto.DocumentDTO;
-import citu.stde.entity.Classroom;
-import citu.stde.entity.Document;
 import citu.stde.repository.ClassroomRepository;
 import citu.stde.repository.DocumentRepository;
 import citu.stde.repository.UserRepository;
+import citu.stde.service.DocumentService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,9 +14,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/dashboard")
@@ -28,6 +24,7 @@ public class DashboardController {
     private final ClassroomRepository classroomRepository;
     private final DocumentRepository documentRepository;
     private final UserRepository userRepository;
+    private final DocumentService documentService;
 
     @GetMapping("/teacher")
         public ResponseEntity<?> getTeacherStats(Authentication authentication) {
@@ -41,21 +38,7 @@ public class DashboardController {
             long totalStudents = classroomRepository.countUniqueStudentsByTeacherId(teacherId);
 
             // 2. Recent Activity (Latest 10)
-            List<Document> recentDocs = documentRepository.findByClassroom_TeacherIdAndIsSubmittedTrueOrderByUploadDateDesc(
-                    teacherId, PageRequest.of(0, 10));
-
-            List<DocumentDTO> recentActivity = recentDocs.stream().map(doc -> 
-                DocumentDTO.builder()
-                    .id(doc.getId())
-                    .filename(doc.getFilename())
-                    .studentName(doc.getUser().getFirstname() + " " + doc.getUser().getLastname())
-                    .uploadDate(doc.getUploadDate())
-                    .overallScore(null) 
-                    .status(doc.getStatus())
-                    .classroomId(doc.getClassroom().getId())
-                    .driveFileId(doc.getDriveFileId())
-                    .build()
-            ).collect(Collectors.toList());
+            List<DocumentDTO> recentActivity = documentService.getRecentSubmissions(teacherId, 10);
 
             return ResponseEntity.ok(Map.of(
                 "totalClasses", totalClasses,
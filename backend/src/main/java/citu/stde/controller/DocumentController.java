@@ -1,11 +1,13 @@
 package citu.stde.controller;
 
+import citu.stde.dto.CursorPage;
 import citu.stde.dto.DocumentDTO;
 import citu.stde.service.DocumentService;
 import citu.stde.service.ClassroomService; 
 import citu.stde.repository.UserRepository;
 import citu.stde.entity.Document;
 import citu.stde.entity.User;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -46,12 +49,46 @@ public class DocumentController {
         }
     }
 
+    // Raw file body (Content-Type / Content-Length of the file) streamed to Drive without multipart buffering
+    @PutMapping("/upload-stream")
+    public ResponseEntity<?> uploadDocumentStream(
+            @RequestParam("filename") String filename,
+            @RequestParam(value = "classId", required = false) UUID classId,
+            HttpServletRequest request,
+            Authentication authentication) {
+        try {
+            UUID userId = extractUserIdFromAuth(authentication);
+            long size = request.getContentLengthLong();
+            if (size < 0) {
+                return ResponseEntity.status(HttpStatus.LENGTH_REQUIRED).body(Map.of("error", "Content-Length is required"));
+            }
+            String contentType = request.getContentType() != null ? request.getContentType() : "application/octet-stream";
+            DocumentDTO document = documentService.uploadDocumentStream(
+                    request.getInputStream(), filename, contentType, size, userId, classId);
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("message", "Document uploaded successfully", "document", document));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Failed to upload: " + e.getMessage()));
+        }
+    }
+
     @GetMapping
-    public ResponseEntity<?> getUserDocuments(Authentication authentication) {
+    public ResponseEntity<?> getUserDocuments(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            Authentication authentication) {
         try {
             UUID userId = extractUserIdFromAuth(authentication);
-            List<DocumentDTO> documents = documentService.getUserDocuments(userId);
-            return ResponseEntity.ok(Map.of("documents", documents, "count", documents.size()));
+            CursorPage<DocumentDTO> page = documentService.getUserDocuments(userId, cursor, limit);
+            // count stays the user's total, not the page size
+            Map<String, Object> body = new HashMap<>();
+            body.put("documents", page.items());
+            body.put("count", documentService.countUserDocuments(userId));
+            body.put("nextCursor", page.nextCursor());
+            return ResponseEntity.ok(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Failed to fetch documents: " + e.getMessage()));
         }
@@ -95,22 +132,28 @@ public class DocumentController {
     }
 
     @GetMapping("/classroom/{classId}")
-    public ResponseEntity<?> getClassDocuments(@PathVariable UUID classId, Authentication authentication) {
+    public ResponseEntity<?> getClassDocuments(
+            @PathVariable UUID classId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            Authentication authentication) {
         try {
             UUID userId = extractUserIdFromAuth(authentication);
             User user = userRepository.findById(userId).orElseThrow();
             
             if ("TEACHER".equalsIgnoreCase(user.getUserType().name())) {
                 classroomService.verifyClassroomOwnership(classId, userId);
-                return ResponseEntity.ok(documentService.getDocumentsByClass(classId)); // Filtered by submitted=true
+                return ResponseEntity.ok(documentService.getDocumentsByClass(classId, cursor, limit)); // Filtered by submitted=true
             } else {
                 if (!classroomService.isStudentEnrolled(classId, userId)) {
                     return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "You are not enrolled in this class"));
                 }
-                return ResponseEntity.ok(documentService.getDocumentsByClassAndStudent(classId, userId)); // Filtered by user
+                return ResponseEntity.ok(documentService.getDocumentsByClassAndStudent(classId, userId, cursor, limit)); // Filtered by user
             }
         } catch (SecurityException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Failed to fetch class documents: " + e.getMessage()));
         }
@@ -1,14 +1,22 @@
 package citu.stde.controller;
 
+import citu.stde.dto.ClassroomEvaluationBatchDTO;
+import citu.stde.dto.CursorPage;
 import citu.stde.dto.EvaluationDTO;
+import citu.stde.dto.EvaluationJobDTO;
 import citu.stde.repository.UserRepository;
+import citu.stde.service.ClassroomEvaluationBatchService;
+import citu.stde.service.EvaluationJobService;
 import citu.stde.service.EvaluationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus; 
+import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.net.URI;
 import java.util.List;
 import java.util.UUID;
 import java.util.Map;
@@ -19,25 +27,118 @@ import java.util.Map;
 public class EvaluationController {
 
     private final EvaluationService evaluationService;
+    private final EvaluationJobService evaluationJobService;
+    private final ClassroomEvaluationBatchService classroomEvaluationBatchService;
     private final UserRepository userRepository;
 
+    // Queues the evaluation and answers 202 right away; poll /jobs/{jobId} for the result
     @PostMapping("/evaluate/{documentId}")
     public ResponseEntity<?> evaluateDocument(
             @PathVariable UUID documentId,
             Authentication authentication) {
         try {
             UUID userId = getUserId(authentication);
-            return ResponseEntity.ok(evaluationService.evaluateDocument(documentId, userId));
+            EvaluationJobDTO job = evaluationJobService.submitEvaluation(documentId, userId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create("/api/evaluations/jobs/" + job.getJobId()))
+                    .body(job);
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
         } catch (RuntimeException e) {
             // Check for our custom Quota error
             if (e.getMessage().contains("TYPE:QUOTA_EXCEEDED")) {
                 String cleanMessage = e.getMessage().replace("TYPE:QUOTA_EXCEEDED|", "");
                 return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", cleanMessage));
             }
+            if (e.getMessage().contains("TYPE:QUEUE_FULL")) {
+                String cleanMessage = e.getMessage().replace("TYPE:QUEUE_FULL|", "");
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", cleanMessage));
+            }
+            if (e.getMessage().contains("TYPE:IN_PROGRESS")) {
+                String cleanMessage = e.getMessage().replace("TYPE:IN_PROGRESS|", "");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", cleanMessage));
+            }
             throw e;
         }
     }
 
+    // Same as /evaluate/{documentId}, but answers with an SSE stream of the job's progress
+    // (stage, criterion, done); refusals such as an exhausted quota arrive as a FAILED done event
+    @PostMapping(value = "/evaluate/{documentId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter evaluateDocumentStream(
+            @PathVariable UUID documentId,
+            Authentication authentication) {
+        UUID userId = getUserId(authentication);
+        try {
+            EvaluationJobDTO job = evaluationJobService.submitEvaluation(documentId, userId, true);
+            return evaluationJobService.subscribe(job.getJobId(), userId);
+        } catch (RuntimeException e) {
+            return evaluationJobService.rejectedStream(documentId, e.getMessage());
+        }
+    }
+
+    // Follow an already submitted job; events sent so far are replayed first
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> getEvaluationJobEvents(
+            @PathVariable UUID jobId,
+            Authentication authentication) {
+        try {
+            UUID userId = getUserId(authentication);
+            return ResponseEntity.ok(evaluationJobService.subscribe(jobId, userId));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getEvaluationJob(
+            @PathVariable UUID jobId,
+            Authentication authentication) {
+        try {
+            UUID userId = getUserId(authentication);
+            return ResponseEntity.ok(evaluationJobService.getJob(jobId, userId));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Teacher: evaluate every submitted document of a classroom; poll /batches/{batchId} for progress
+    @PostMapping("/classroom/{classId}/evaluate-all")
+    public ResponseEntity<?> evaluateClassroom(
+            @PathVariable UUID classId,
+            @RequestParam(defaultValue = "false") boolean includeEvaluated,
+            Authentication authentication) {
+        try {
+            UUID teacherId = getUserId(authentication);
+            ClassroomEvaluationBatchDTO batch = classroomEvaluationBatchService.startBatch(classId, teacherId, includeEvaluated);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create("/api/evaluations/batches/" + batch.getBatchId()))
+                    .body(batch);
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/batches/{batchId}")
+    public ResponseEntity<?> getEvaluationBatch(
+            @PathVariable UUID batchId,
+            Authentication authentication) {
+        try {
+            UUID teacherId = getUserId(authentication);
+            return ResponseEntity.ok(classroomEvaluationBatchService.getBatch(batchId, teacherId));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
     // Get Usage Stats
     @GetMapping("/usage")
     public ResponseEntity<?> getUsageStats(Authentication authentication) {
@@ -54,9 +155,17 @@ public class EvaluationController {
     }
 
     @GetMapping("/user")
-    public ResponseEntity<List<EvaluationDTO>> getUserEvaluations(Authentication authentication) {
+    public ResponseEntity<?> getUserEvaluations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication) {
         UUID userId = getUserId(authentication);
-        return ResponseEntity.ok(evaluationService.getUserEvaluations(userId));
+        try {
+            CursorPage<EvaluationDTO> page = evaluationService.getUserEvaluations(userId, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @PutMapping("/override/{documentId}")
@@ -0,0 +1,44 @@
+package citu.stde.dto;
+
+import citu.stde.entity.DocumentStatus;
+import lombok.Builder;
+import lombok.Data;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+public class ClassroomEvaluationBatchDTO {
+    private UUID batchId;
+    private UUID classroomId;
+    private DocumentStatus status; // PROCESSING -> COMPLETED
+
+    private int total;
+    private int queued;
+    private int running;
+    private int completed;
+    private int cached;   // Served from the evaluation cache, no Drive or AI call
+    private int skipped;  // Already evaluated / already being evaluated
+    private int failed;
+
+    private int parallelism;       // Current concurrent AI evaluations for this batch
+    private int rateLimitRetries;  // 429s that were re-queued
+    private Instant pausedUntil;   // Set while backing off after a 429
+
+    private Instant submittedAt;
+    private Instant finishedAt;
+
+    private List<Item> items;
+
+    @Data
+    @Builder
+    public static class Item {
+        private UUID documentId;
+        private String filename;
+        private String state; // QUEUED, RUNNING, COMPLETED, CACHED, SKIPPED, FAILED
+        private int attempts;
+        private Integer overallScore;
+        private String error;
+    }
+}
@@ -0,0 +1,16 @@
+package citu.stde.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Projection returned by ClassroomRepository.findListingByTeacherId
+public interface ClassroomListing {
+    UUID getId();
+    String getName();
+    String getSection();
+    String getClassCode();
+    UUID getTeacherId();
+    String getDriveFolderId();
+    Instant getCreatedAt();
+    Integer getStudentCount();
+}
@@ -0,0 +1,20 @@
+package citu.stde.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+// One page of a keyset-paginated listing; nextCursor is null on the last page
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    /**
+     * Builds a page from {@code limit + 1} fetched rows: the extra row only tells whether another
+     * page exists, and is not returned.
+     */
+    public static <R, T> CursorPage<T> of(List<R> rows, int limit, Function<R, T> mapper,
+                                          Function<R, PageCursor> cursorOf) {
+        boolean hasMore = rows.size() > limit;
+        List<R> pageRows = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(pageRows.get(limit - 1)).encode() : null;
+        return new CursorPage<>(pageRows.stream().map(mapper).toList(), nextCursor);
+    }
+}
@@ -21,4 +21,20 @@ public class DocumentDTO {
     private UUID classroomId;
     private String driveFileId;
     private Boolean isSubmitted;
+
+    public static DocumentDTO from(DocumentListing row) {
+        return DocumentDTO.builder()
+                .id(row.getId())
+                .filename(row.getFilename())
+                .fileType(row.getFileType())
+                .fileSize(row.getFileSize())
+                .uploadDate(row.getUploadDate())
+                .status(row.getStatus())
+                .studentName(row.getStudentName())
+                .overallScore(row.getOverallScore())
+                .classroomId(row.getClassroomId())
+                .driveFileId(row.getDriveFileId())
+                .isSubmitted(row.getIsSubmitted())
+                .build();
+    }
 }
\ No newline at end of file
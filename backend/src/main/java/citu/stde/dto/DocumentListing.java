@@ -0,0 +1,22 @@
+package citu.stde.dto;
+
+import citu.stde.entity.DocumentStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Projection returned by the DocumentRepository listing queries: one row per document, with the
+// student's name and overall score joined in
+public interface DocumentListing {
+    UUID getId();
+    String getFilename();
+    String getFileType();
+    Long getFileSize();
+    Instant getUploadDate();
+    DocumentStatus getStatus();
+    String getStudentName();
+    Integer getOverallScore();
+    UUID getClassroomId();
+    String getDriveFileId();
+    Boolean getIsSubmitted();
+}
@@ -0,0 +1,22 @@
+package citu.stde.dto;
+
+import citu.stde.entity.DocumentStatus;
+import lombok.Builder;
+import lombok.Data;
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+public class EvaluationJobDTO {
+    private UUID jobId;
+    private UUID documentId;
+    private DocumentStatus status; // PROCESSING -> COMPLETED / FAILED
+
+    private EvaluationDTO result; // Only set once COMPLETED
+    private String errorType;     // e.g. RATE_LIMIT, INVALID_DOCUMENT (only when FAILED)
+    private String error;
+
+    private Instant submittedAt;
+    private Instant finishedAt;
+}
@@ -0,0 +1,22 @@
+package citu.stde.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Projection returned by EvaluationRepository.findListingByUserId
+public interface EvaluationListing {
+    UUID getId();
+    UUID getDocumentId();
+    String getFilename();
+    Integer getCompletenessScore();
+    String getCompletenessFeedback();
+    Integer getClarityScore();
+    String getClarityFeedback();
+    Integer getConsistencyScore();
+    String getConsistencyFeedback();
+    Integer getVerificationScore();
+    String getVerificationFeedback();
+    Integer getOverallScore();
+    String getOverallFeedback();
+    Instant getCreatedAt();
+}
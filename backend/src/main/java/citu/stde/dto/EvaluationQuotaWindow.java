@@ -0,0 +1,9 @@
+package citu.stde.dto;
+
+import java.time.Instant;
+
+// Projection returned by UserRepository.findEvaluationQuotaWindow
+public interface EvaluationQuotaWindow {
+    Integer getEvaluationCount();
+    Instant getEvaluationWindowStart();
+}
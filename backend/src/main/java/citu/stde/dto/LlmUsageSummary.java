@@ -0,0 +1,13 @@
+package citu.stde.dto;
+
+// Projection returned by LlmUsageRollupRepository.summarize
+public interface LlmUsageSummary {
+    String getDimensionKey();
+    String getModel();
+    Long getCalls();
+    Long getErrors();
+    Long getPromptTokens();
+    Long getCompletionTokens();
+    Long getTotalLatencyMs();
+    Long getMaxLatencyMs();
+}
@@ -0,0 +1,42 @@
+package citu.stde.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a listing ordered by (timestamp DESC, id DESC): the last row of the previous page.
+ * Sent to clients as an opaque base64url token, so the sort columns can change without breaking them.
+ */
+public record PageCursor(Instant timestamp, UUID id) {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Sorts after every real row, so the first page uses the same seek query as every other page
+    public static final PageCursor FIRST = new PageCursor(
+            Instant.parse("9999-12-31T23:59:59Z"), new UUID(-1L, -1L));
+
+    public String encode() {
+        String raw = timestamp.getEpochSecond() + ":" + timestamp.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Null or blank means the first page
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) return FIRST;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":", 3);
+            return new PageCursor(Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1])),
+                    UUID.fromString(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public static int pageSize(Integer requested) {
+        if (requested == null) return DEFAULT_PAGE_SIZE;
+        return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
+    }
+}
@@ -6,7 +6,12 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "activity_logs")
+// Indexes for the admin log filters: time range alone, or narrowed to one action / one user
+@Table(name = "activity_logs", indexes = {
+        @Index(name = "idx_activity_logs_timestamp", columnList = "timestamp, id"),
+        @Index(name = "idx_activity_logs_action_timestamp", columnList = "action, timestamp"),
+        @Index(name = "idx_activity_logs_user_timestamp", columnList = "user_email, timestamp")
+})
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class ActivityLog {
     @Id
@@ -0,0 +1,30 @@
+package citu.stde.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.Instant;
+import java.util.UUID;
+
+// Number of activity log events per action in one UTC hour or day; recomputed from activity_logs
+@Entity
+@Table(name = "activity_log_rollups",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"bucket_start", "granularity", "action"}))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ActivityLogRollup {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+
+    @Column(nullable = false, length = 10)
+    private String granularity; // HOUR, DAY
+
+    @Column(nullable = false)
+    private String action;
+
+    @Column(name = "event_count", nullable = false)
+    private long eventCount;
+}
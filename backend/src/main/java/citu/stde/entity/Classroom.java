@@ -1,5 +1,6 @@
 package citu.stde.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 import java.util.UUID;
@@ -8,7 +9,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "classrooms")
+@Table(name = "classrooms", indexes = @Index(name = "idx_classrooms_teacher_created", columnList = "teacher_id, created_at, id"))
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Classroom {
 
@@ -35,6 +36,8 @@ public class Classroom {
     @Builder.Default
     private Instant createdAt = Instant.now();
 
+    // Never serialised: it is lazy (open-in-view is off) and would expose student records
+    @JsonIgnore
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "student_enrollments",
@@ -6,7 +6,13 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "documents")
+// Composite indexes back the keyset listings: equality column first, then the (upload_date, id) sort key.
+// file_hash is looked up on every upload, import and evaluation (findContentHashByFileHash)
+@Table(name = "documents", indexes = {
+        @Index(name = "idx_documents_user_upload", columnList = "user_id, upload_date, id"),
+        @Index(name = "idx_documents_classroom_upload", columnList = "classroom_id, upload_date, id"),
+        @Index(name = "idx_documents_file_hash", columnList = "file_hash")
+})
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Document {
     
@@ -45,6 +51,12 @@ public class Document {
     @Column(name = "content_hash", length = 64)
     private String contentHash;
 
+    // Drive's md5Checksum of the file bytes ("md5:..."), as returned by the upload or copy; null for
+    // Google-native files. contentHash is the hash of the extracted text and is only known after a
+    // download and parse.
+    @Column(name = "file_hash", length = 64)
+    private String fileHash;
+
     @Column(name = "is_submitted")
     @Builder.Default
     private Boolean isSubmitted = false;
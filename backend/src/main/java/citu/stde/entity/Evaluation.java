@@ -6,7 +6,7 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "evaluations")
+@Table(name = "evaluations", indexes = @Index(name = "idx_evaluations_user_created", columnList = "user_id, created_at, id"))
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Evaluation {
 
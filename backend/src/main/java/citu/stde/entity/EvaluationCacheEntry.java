@@ -0,0 +1,62 @@
+package citu.stde.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.Instant;
+import java.util.UUID;
+
+// Persistent tier of the AI result cache: one row per (content hash, prompt/model version)
+@Entity
+@Table(name = "evaluation_cache",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"content_hash", "prompt_version"}))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class EvaluationCacheEntry {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "prompt_version", nullable = false, length = 64)
+    private String promptVersion;
+
+    @Column(name = "completeness_score")
+    private Integer completenessScore;
+
+    @Column(name = "completeness_feedback", columnDefinition = "TEXT")
+    private String completenessFeedback;
+
+    @Column(name = "clarity_score")
+    private Integer clarityScore;
+
+    @Column(name = "clarity_feedback", columnDefinition = "TEXT")
+    private String clarityFeedback;
+
+    @Column(name = "consistency_score")
+    private Integer consistencyScore;
+
+    @Column(name = "consistency_feedback", columnDefinition = "TEXT")
+    private String consistencyFeedback;
+
+    @Column(name = "verification_score")
+    private Integer verificationScore;
+
+    @Column(name = "verification_feedback", columnDefinition = "TEXT")
+    private String verificationFeedback;
+
+    @Column(name = "overall_score")
+    private Integer overallScore;
+
+    @Column(name = "overall_feedback", columnDefinition = "TEXT")
+    private String overallFeedback;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) createdAt = Instant.now();
+    }
+}
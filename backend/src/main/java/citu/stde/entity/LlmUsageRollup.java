@@ -0,0 +1,45 @@
+package citu.stde.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.Instant;
+import java.util.UUID;
+
+// Hourly token/latency totals for one dimension value (a user, a classroom or an endpoint) and model
+@Entity
+@Table(name = "llm_usage_rollups",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"bucket_start", "dimension", "dimension_key", "model"}))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class LlmUsageRollup {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+
+    @Column(nullable = false, length = 20)
+    private String dimension; // USER, CLASSROOM, ENDPOINT
+
+    @Column(name = "dimension_key", nullable = false, length = 100)
+    private String dimensionKey;
+
+    @Column(nullable = false, length = 100)
+    private String model;
+
+    private long calls;
+    private long errors;
+
+    @Column(name = "prompt_tokens")
+    private long promptTokens;
+
+    @Column(name = "completion_tokens")
+    private long completionTokens;
+
+    @Column(name = "total_latency_ms")
+    private long totalLatencyMs;
+
+    @Column(name = "max_latency_ms")
+    private long maxLatencyMs;
+}
@@ -38,11 +38,12 @@ public class User {
     @Column(name = "is_active")
     private Boolean isActive = true;
 
-    @Column(name = "eval_count")
+    // Owned by EvaluationQuotaService: saving a stale User must not roll the quota back
+    @Column(name = "eval_count", updatable = false)
     @Builder.Default
     private Integer evaluationCount = 0;
 
-    @Column(name = "eval_window_start")
+    @Column(name = "eval_window_start", updatable = false)
     private Instant evaluationWindowStart;
 
     @Column(name = "created_at")
@@ -0,0 +1,130 @@
+package citu.stde.loadtest;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stand-in for the OpenAI chat model used under the {@code loadtest} profile.
+ *
+ * Answers "YES" to the validation prompt and a well-formed score JSON to scoring prompts (anything
+ * that asks for JSON), after a simulated latency. Failures are shaped like Spring AI's real errors:
+ * 429s during periodic bursts or above {@code max-concurrent} in-flight calls, and random 503s.
+ */
+public class FakeChatModel implements ChatModel {
+
+    private static final String MODEL = "fake-gpt";
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final int STREAM_CHUNK_CHARS = 16;
+    private static final Duration STREAM_CHUNK_DELAY = Duration.ofMillis(10);
+
+    private final LatencyProfile latency;
+    private final double errorRate;
+    private final long burstEveryMillis;
+    private final long burstMillis;
+    private final long retryAfterSeconds;
+    private final int maxConcurrent;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public FakeChatModel(LatencyProfile latency, double errorRate, long burstEverySeconds, long burstSeconds,
+                         long retryAfterSeconds, int maxConcurrent) {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.burstEveryMillis = burstEverySeconds * 1000;
+        this.burstMillis = burstSeconds * 1000;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        int concurrent = inFlight.incrementAndGet();
+        try {
+            if (inRateLimitBurst() || (maxConcurrent > 0 && concurrent > maxConcurrent)) {
+                throw new NonTransientAiException("HTTP 429 - {\"error\":{\"message\":\"Rate limit reached for " + MODEL
+                        + " on requests per min. Please try again in " + retryAfterSeconds + "s.\","
+                        + "\"type\":\"requests\",\"code\":\"rate_limit_exceeded\"}}");
+            }
+
+            latency.sleep();
+
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                throw new TransientAiException("HTTP 503 - {\"error\":{\"message\":\"The server is overloaded.\"}}");
+            }
+
+            String promptText = promptText(prompt);
+            String answer = promptText.contains("JSON") ? scoreJson(promptText) : "YES";
+
+            ChatResponseMetadata metadata = ChatResponseMetadata.builder()
+                    .model(MODEL)
+                    .usage(new DefaultUsage(promptText.length() / CHARS_PER_TOKEN, answer.length() / CHARS_PER_TOKEN))
+                    .build();
+            return new ChatResponse(List.of(new Generation(new AssistantMessage(answer))), metadata);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    // The simulated latency passes before the first token; the answer then arrives in small pieces,
+    // with usage on a final empty chunk as OpenAI sends it
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Flux.defer(() -> {
+            ChatResponse full = call(prompt);
+            String answer = full.getResult().getOutput().getText();
+            List<ChatResponse> chunks = new ArrayList<>();
+            for (int i = 0; i < answer.length(); i += STREAM_CHUNK_CHARS) {
+                String piece = answer.substring(i, Math.min(answer.length(), i + STREAM_CHUNK_CHARS));
+                chunks.add(new ChatResponse(List.of(new Generation(new AssistantMessage(piece)))));
+            }
+            chunks.add(new ChatResponse(List.of(), full.getMetadata()));
+            return Flux.fromIterable(chunks).delayElements(STREAM_CHUNK_DELAY);
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private boolean inRateLimitBurst() {
+        return burstEveryMillis > 0 && burstMillis > 0
+                && System.currentTimeMillis() % burstEveryMillis < burstMillis;
+    }
+
+    private static String promptText(Prompt prompt) {
+        StringBuilder text = new StringBuilder();
+        for (Message message : prompt.getInstructions()) {
+            if (message.getText() != null) text.append(message.getText()).append('\n');
+        }
+        return text.toString();
+    }
+
+    // Scores derived from the prompt so the same document always gets the same result
+    private static String scoreJson(String promptText) {
+        int seed = promptText.hashCode();
+        int completeness = 55 + Math.floorMod(seed, 41);
+        int clarity = 55 + Math.floorMod(seed >> 3, 41);
+        int consistency = 55 + Math.floorMod(seed >> 6, 41);
+        int verification = 55 + Math.floorMod(seed >> 9, 41);
+        int overall = (completeness + clarity + consistency + verification) / 4;
+        return "{"
+                + "\"completenessScore\":" + completeness + ",\"completenessFeedback\":\"Simulated completeness feedback.\","
+                + "\"clarityScore\":" + clarity + ",\"clarityFeedback\":\"Simulated clarity feedback.\","
+                + "\"consistencyScore\":" + consistency + ",\"consistencyFeedback\":\"Simulated consistency feedback.\","
+                + "\"verificationScore\":" + verification + ",\"verificationFeedback\":\"Simulated verification feedback.\","
+                + "\"overallScore\":" + overall + ",\"overallFeedback\":\"Simulated overall feedback.\""
+                + "}";
+    }
+}
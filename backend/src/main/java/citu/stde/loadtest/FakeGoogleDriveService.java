@@ -0,0 +1,122 @@
+package citu.stde.loadtest;
+
+import citu.stde.service.DriveBlobCache;
+import citu.stde.service.DriveClientProvider;
+import citu.stde.service.GoogleDriveService;
+import com.google.api.services.drive.model.File;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-memory Google Drive used under the {@code loadtest} profile: no OAuth token, no network,
+ * just a simulated latency and error rate per call. Files live until the app stops.
+ */
+public class FakeGoogleDriveService extends GoogleDriveService {
+
+    private final LatencyProfile latency;
+    private final double errorRate;
+
+    private final Map<String, StoredFile> files = new ConcurrentHashMap<>();
+
+    public FakeGoogleDriveService(DriveClientProvider driveClientProvider, DriveBlobCache driveBlobCache,
+                                  LatencyProfile latency, double errorRate) {
+        super(driveClientProvider, driveBlobCache);
+        this.latency = latency;
+        this.errorRate = errorRate;
+    }
+
+    @Override
+    public File uploadStream(InputStream content, String filename, String contentType, long length,
+                             String folderId) throws IOException {
+        simulateCall();
+        byte[] bytes = content.readNBytes((int) Math.min(length, Integer.MAX_VALUE));
+        String id = newId();
+        files.put(id, new StoredFile(bytes, md5(bytes), contentType));
+
+        File file = new File();
+        file.setId(id);
+        file.setName(filename);
+        file.setMimeType(contentType);
+        file.setSize((long) bytes.length);
+        file.setMd5Checksum(files.get(id).md5());
+        file.setWebViewLink("https://drive.example.invalid/file/d/" + id + "/view");
+        return file;
+    }
+
+    @Override
+    public File copyFile(String fileId, String folderId) throws IOException {
+        simulateCall();
+        StoredFile original = find(fileId);
+        String id = newId();
+        files.put(id, original);
+
+        File file = new File();
+        file.setId(id);
+        file.setName("Copy of " + fileId);
+        file.setMimeType(original.mimeType());
+        file.setSize((long) original.content().length);
+        file.setMd5Checksum(original.md5());
+        file.setWebViewLink("https://drive.example.invalid/file/d/" + id + "/view");
+        return file;
+    }
+
+    @Override
+    public String createFolder(String folderName, String parentFolderId) throws IOException {
+        simulateCall();
+        return newId();
+    }
+
+    @Override
+    public InputStream downloadFile(String fileId) throws IOException {
+        simulateCall();
+        return new ByteArrayInputStream(find(fileId).content());
+    }
+
+    @Override
+    public String getFileRevision(String fileId) throws IOException {
+        simulateCall();
+        return "md5:" + find(fileId).md5();
+    }
+
+    @Override
+    public void deleteFile(String fileId) throws IOException {
+        simulateCall();
+        files.remove(fileId);
+    }
+
+    private StoredFile find(String fileId) throws IOException {
+        StoredFile file = files.get(fileId);
+        if (file == null) throw new IOException("404 Not Found: File not found: " + fileId);
+        return file;
+    }
+
+    private void simulateCall() throws IOException {
+        latency.sleep();
+        if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+            throw new IOException("503 Service Unavailable (simulated Drive error)");
+        }
+    }
+
+    private static String newId() {
+        return "fake-" + UUID.randomUUID().toString().replace("-", "");
+    }
+
+    private static String md5(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+
+    private record StoredFile(byte[] content, String md5, String mimeType) {}
+}
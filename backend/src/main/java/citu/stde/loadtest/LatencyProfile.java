@@ -0,0 +1,36 @@
+package citu.stde.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Log-normal latency fitted to a p50 and a p99, which is roughly how remote API latency is shaped
+ * (most calls near the median, a long slow tail).
+ */
+public class LatencyProfile {
+
+    // z-score of the 99th percentile of a standard normal distribution
+    private static final double Z_99 = 2.3263;
+
+    private final double mu;
+    private final double sigma;
+
+    public LatencyProfile(long p50Millis, long p99Millis) {
+        long p50 = Math.max(1, p50Millis);
+        long p99 = Math.max(p50, p99Millis);
+        this.mu = Math.log(p50);
+        this.sigma = (Math.log(p99) - Math.log(p50)) / Z_99;
+    }
+
+    public long sampleMillis() {
+        return Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    public void sleep() {
+        try {
+            Thread.sleep(sampleMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during simulated latency", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package citu.stde.loadtest;
+
+import citu.stde.service.DriveBlobCache;
+import citu.stde.service.DriveClientProvider;
+import citu.stde.service.GoogleDriveService;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Swaps OpenAI and Google Drive for local fakes so the evaluation pipeline can be load-tested
+ * offline. Start the backend with {@code --spring.profiles.active=loadtest} and drive it with
+ * {@code backend/loadtest/LoadTest.java}.
+ */
+@Configuration
+@Profile("loadtest")
+public class LoadTestConfig {
+
+    @Bean
+    @Primary
+    public ChatModel fakeChatModel(
+            @Value("${app.fake.llm.latency-p50-ms:800}") long p50,
+            @Value("${app.fake.llm.latency-p99-ms:5000}") long p99,
+            @Value("${app.fake.llm.error-rate:0.0}") double errorRate,
+            @Value("${app.fake.llm.rate-limit.burst-every-seconds:0}") long burstEverySeconds,
+            @Value("${app.fake.llm.rate-limit.burst-seconds:0}") long burstSeconds,
+            @Value("${app.fake.llm.rate-limit.retry-after-seconds:2}") long retryAfterSeconds,
+            @Value("${app.fake.llm.max-concurrent:0}") int maxConcurrent) {
+        return new FakeChatModel(new LatencyProfile(p50, p99), errorRate,
+                burstEverySeconds, burstSeconds, retryAfterSeconds, maxConcurrent);
+    }
+
+    @Bean
+    @Primary
+    public GoogleDriveService fakeGoogleDriveService(
+            DriveClientProvider driveClientProvider,
+            DriveBlobCache driveBlobCache,
+            @Value("${app.fake.drive.latency-p50-ms:150}") long p50,
+            @Value("${app.fake.drive.latency-p99-ms:1200}") long p99,
+            @Value("${app.fake.drive.error-rate:0.0}") double errorRate) {
+        return new FakeGoogleDriveService(driveClientProvider, driveBlobCache, new LatencyProfile(p50, p99), errorRate);
+    }
+}
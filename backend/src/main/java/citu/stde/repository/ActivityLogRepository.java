@@ -1,11 +1,36 @@
 package citu.stde.repository;
 
 import citu.stde.entity.ActivityLog;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
 public interface ActivityLogRepository extends JpaRepository<ActivityLog, UUID> {
-    // Get latest logs first
-    List<ActivityLog> findAllByOrderByTimestampDesc();
-}
\ No newline at end of file
+
+    // Latest logs first, one keyset page at a time, inside [from, to) and optionally one action / user
+    @Query("""
+        SELECT l FROM ActivityLog l
+        WHERE l.timestamp >= :from AND l.timestamp < :to
+          AND (:action IS NULL OR l.action = :action)
+          AND (:userEmail IS NULL OR l.userEmail = :userEmail)
+          AND (l.timestamp < :beforeDate OR (l.timestamp = :beforeDate AND l.id < :beforeId))
+        ORDER BY l.timestamp DESC, l.id DESC
+        """)
+    List<ActivityLog> search(@Param("from") Instant from, @Param("to") Instant to,
+                             @Param("action") String action, @Param("userEmail") String userEmail,
+                             @Param("beforeDate") Instant beforeDate, @Param("beforeId") UUID beforeId, Limit limit);
+
+    // Bounded delete so retention never holds one huge transaction / lock
+    @Modifying
+    @Query(value = """
+        DELETE FROM activity_logs WHERE id IN (
+            SELECT id FROM activity_logs WHERE timestamp < :cutoff LIMIT :batchSize)
+        """, nativeQuery = true)
+    int deleteOlderThan(@Param("cutoff") Instant cutoff, @Param("batchSize") int batchSize);
+}
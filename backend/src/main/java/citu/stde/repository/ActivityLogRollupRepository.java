@@ -0,0 +1,51 @@
+package citu.stde.repository;
+
+import citu.stde.entity.ActivityLogRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ActivityLogRollupRepository extends JpaRepository<ActivityLogRollup, UUID> {
+
+    // Recounts every bucket from :since on and overwrites the stored counts, so running it again
+    // (or over a window already counted) never double counts. :since must be a bucket boundary.
+    @Modifying
+    @Query(value = """
+        INSERT INTO activity_log_rollups (id, bucket_start, granularity, action, event_count)
+        SELECT gen_random_uuid(), b.bucket_start, :granularity, b.action, b.event_count
+        FROM (
+            SELECT date_trunc(:unit, l.timestamp AT TIME ZONE 'UTC') AT TIME ZONE 'UTC' AS bucket_start,
+                   l.action AS action, COUNT(*) AS event_count
+            FROM activity_logs l
+            WHERE l.timestamp >= :since
+            GROUP BY 1, 2
+        ) b
+        ON CONFLICT (bucket_start, granularity, action) DO UPDATE SET event_count = EXCLUDED.event_count
+        """, nativeQuery = true)
+    int recount(@Param("granularity") String granularity, @Param("unit") String unit, @Param("since") Instant since);
+
+    @Query("""
+        SELECT r FROM ActivityLogRollup r
+        WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to
+          AND (:action IS NULL OR r.action = :action)
+        ORDER BY r.bucketStart, r.action
+        """)
+    List<ActivityLogRollup> findBuckets(@Param("granularity") String granularity, @Param("from") Instant from,
+                                        @Param("to") Instant to, @Param("action") String action);
+
+    // Start of the newest bucket counted so far; empty before the first recount
+    @Query("SELECT MAX(r.bucketStart) FROM ActivityLogRollup r WHERE r.granularity = :granularity")
+    Optional<Instant> findLatestBucketStart(@Param("granularity") String granularity);
+
+    @Modifying
+    @Query("DELETE FROM ActivityLogRollup r WHERE r.granularity = :granularity AND r.bucketStart < :cutoff")
+    int deleteOlderThan(@Param("granularity") String granularity, @Param("cutoff") Instant cutoff);
+}
@@ -1,10 +1,14 @@
 package citu.stde.repository;
 
+import citu.stde.dto.ClassroomListing;
 import citu.stde.entity.Classroom;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -17,6 +21,20 @@ public interface ClassroomRepository extends JpaRepository<Classroom, UUID> {
     // Find all classes for a specific teacher
     List<Classroom> findByTeacherId(UUID teacherId);
 
+    // Teacher's classrooms, newest first, one keyset page at a time; student counts come from a
+    // COUNT subquery instead of loading each roster
+    @Query("""
+        SELECT c.id AS id, c.name AS name, c.section AS section, c.classCode AS classCode,
+               c.teacherId AS teacherId, c.driveFolderId AS driveFolderId, c.createdAt AS createdAt,
+               SIZE(c.students) AS studentCount
+        FROM Classroom c
+        WHERE c.teacherId = :teacherId
+          AND (c.createdAt < :beforeDate OR (c.createdAt = :beforeDate AND c.id < :beforeId))
+        ORDER BY c.createdAt DESC, c.id DESC
+        """)
+    List<ClassroomListing> findListingByTeacherId(@Param("teacherId") UUID teacherId,
+                                                  @Param("beforeDate") Instant beforeDate, @Param("beforeId") UUID beforeId, Limit limit);
+
     // Finds a classroom only if the ID and the Teacher ID match.
     Optional<Classroom> findByIdAndTeacherId(UUID id, UUID teacherId);
 
@@ -29,4 +47,13 @@ public interface ClassroomRepository extends JpaRepository<Classroom, UUID> {
     // ADD THIS METHOD - Count unique students across all of a teacher's classrooms
     @Query(value = "SELECT COUNT(DISTINCT student_id) FROM student_enrollments WHERE classroom_id IN (SELECT id FROM classrooms WHERE teacher_id = :teacherId)", nativeQuery = true)
     long countUniqueStudentsByTeacherId(@Param("teacherId") UUID teacherId);
+
+    // Bulk deletes for deleteClassroom: one statement each, nothing loaded into the persistence context
+    @Modifying
+    @Query(value = "DELETE FROM student_enrollments WHERE classroom_id = :classroomId", nativeQuery = true)
+    int deleteEnrollments(@Param("classroomId") UUID classroomId);
+
+    @Modifying
+    @Query("DELETE FROM Classroom c WHERE c.id = :classroomId")
+    int deleteByIdInBulk(@Param("classroomId") UUID classroomId);
 }
\ No newline at end of file
@@ -1,16 +1,43 @@
 package citu.stde.repository;
 
+import citu.stde.dto.DocumentListing;
 import citu.stde.entity.Document;
 import citu.stde.entity.DocumentStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.domain.Pageable;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, UUID> {
+
+    // Listing rows in one statement: student name and overall score are joined, not loaded per row
+    String LISTING_SELECT = """
+        SELECT d.id AS id, d.filename AS filename, d.fileType AS fileType, d.fileSize AS fileSize,
+               d.uploadDate AS uploadDate, d.status AS status,
+               CONCAT(u.firstname, ' ', u.lastname) AS studentName,
+               e.overallScore AS overallScore, c.id AS classroomId,
+               d.driveFileId AS driveFileId, d.isSubmitted AS isSubmitted
+        FROM Document d
+        JOIN d.user u
+        LEFT JOIN d.classroom c
+        LEFT JOIN Evaluation e ON e.document = d AND d.status = citu.stde.entity.DocumentStatus.COMPLETED
+        """;
+
+    // Keyset page: rows after the cursor in (uploadDate DESC, id DESC) order, so a deep page seeks
+    // straight to its position instead of skipping over every earlier row
+    String AFTER_CURSOR = """
+         AND (d.uploadDate < :beforeDate OR (d.uploadDate = :beforeDate AND d.id < :beforeId))
+        ORDER BY d.uploadDate DESC, d.id DESC
+        """;
     
     // Find all documents by user ID
     List<Document> findByUserId(UUID userId);
@@ -39,6 +66,31 @@ public interface DocumentRepository extends JpaRepository<Document, UUID> {
     // Count all submitted documents across all classrooms owned by this teacher
     long countByClassroom_TeacherIdAndIsSubmittedTrue(UUID teacherId);
 
-    // Get recent submissions for teacher (Pageable allows us to set the limit to 10 or whatever)
-    List<Document> findByClassroom_TeacherIdAndIsSubmittedTrueOrderByUploadDateDesc(UUID teacherId, Pageable pageable);
-}
\ No newline at end of file
+    @Query(LISTING_SELECT + "WHERE d.user.id = :userId" + AFTER_CURSOR)
+    List<DocumentListing> findListingByUserId(@Param("userId") UUID userId,
+                                              @Param("beforeDate") Instant beforeDate, @Param("beforeId") UUID beforeId, Limit limit);
+
+    @Query(LISTING_SELECT + "WHERE c.id = :classroomId AND d.user.id = :userId" + AFTER_CURSOR)
+    List<DocumentListing> findListingByClassroomIdAndUserId(@Param("classroomId") UUID classroomId, @Param("userId") UUID userId,
+                                                            @Param("beforeDate") Instant beforeDate, @Param("beforeId") UUID beforeId, Limit limit);
+
+    @Query(LISTING_SELECT + "WHERE c.id = :classroomId AND d.isSubmitted = true" + AFTER_CURSOR)
+    List<DocumentListing> findSubmittedListingByClassroomId(@Param("classroomId") UUID classroomId,
+                                                            @Param("beforeDate") Instant beforeDate, @Param("beforeId") UUID beforeId, Limit limit);
+
+    @Query(LISTING_SELECT + "WHERE c.teacherId = :teacherId AND d.isSubmitted = true ORDER BY d.uploadDate DESC")
+    List<DocumentListing> findSubmittedListingByTeacherId(@Param("teacherId") UUID teacherId, Pageable pageable);
+
+    // Text hash already recorded for any document with exactly these bytes
+    @Query(value = "SELECT content_hash FROM documents WHERE file_hash = :fileHash AND content_hash IS NOT NULL LIMIT 1", nativeQuery = true)
+    Optional<String> findContentHashByFileHash(@Param("fileHash") String fileHash);
+
+    // Row lock held until the transaction ends: serialises everything that replaces the document's evaluation
+    @Query(value = "SELECT 1 FROM documents WHERE id = :documentId FOR UPDATE", nativeQuery = true)
+    Optional<Integer> lockById(@Param("documentId") UUID documentId);
+
+    // Every document of a classroom in one statement (its evaluations must be deleted first)
+    @Modifying
+    @Query("DELETE FROM Document d WHERE d.classroom.id = :classroomId")
+    int deleteByClassroomId(@Param("classroomId") UUID classroomId);
+}
@@ -0,0 +1,23 @@
+package citu.stde.repository;
+
+import citu.stde.entity.EvaluationCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface EvaluationCacheRepository extends JpaRepository<EvaluationCacheEntry, UUID> {
+
+    Optional<EvaluationCacheEntry> findByContentHashAndPromptVersion(String contentHash, String promptVersion);
+
+    // Drops rows written under an older prompt/model or past their TTL
+    @Modifying
+    @Query("DELETE FROM EvaluationCacheEntry e WHERE e.promptVersion <> :promptVersion OR e.createdAt < :cutoff")
+    int deleteStaleEntries(@Param("promptVersion") String promptVersion, @Param("cutoff") Instant cutoff);
+}
@@ -1,8 +1,14 @@
 package citu.stde.repository;
 
+import citu.stde.dto.EvaluationListing;
 import citu.stde.entity.Evaluation;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,7 +19,32 @@ public interface EvaluationRepository extends JpaRepository<Evaluation, UUID> {
     
     Optional<Evaluation> findByDocumentId(UUID documentId);
 
-    void deleteByDocumentId(UUID documentId);
+    // One statement per page, seeking on (createdAt, id); findByUserId would load each evaluation's document separately
+    @Query("""
+        SELECT e.id AS id, d.id AS documentId, d.filename AS filename,
+               e.completenessScore AS completenessScore, e.completenessFeedback AS completenessFeedback,
+               e.clarityScore AS clarityScore, e.clarityFeedback AS clarityFeedback,
+               e.consistencyScore AS consistencyScore, e.consistencyFeedback AS consistencyFeedback,
+               e.verificationScore AS verificationScore, e.verificationFeedback AS verificationFeedback,
+               e.overallScore AS overallScore, e.overallFeedback AS overallFeedback, e.createdAt AS createdAt
+        FROM Evaluation e JOIN e.document d
+        WHERE e.userId = :userId
+          AND (e.createdAt < :beforeDate OR (e.createdAt = :beforeDate AND e.id < :beforeId))
+        ORDER BY e.createdAt DESC, e.id DESC
+        """)
+    List<EvaluationListing> findListingByUserId(@Param("userId") UUID userId,
+                                                @Param("beforeDate") Instant beforeDate, @Param("beforeId") UUID beforeId, Limit limit);
 
-    Optional<Evaluation> findTopByUserIdAndDocument_ContentHashOrderByCreatedAtDesc(UUID userId, String contentHash);
+    // Whether this user already has an evaluation of this exact content (the result cache is cross-user)
+    @Query("SELECT COUNT(e) > 0 FROM Evaluation e WHERE e.userId = :userId AND e.document.contentHash = :contentHash")
+    boolean existsByUserIdAndContentHash(@Param("userId") UUID userId, @Param("contentHash") String contentHash);
+
+    @Modifying
+    @Query("DELETE FROM Evaluation e WHERE e.document.id = :documentId")
+    int deleteByDocumentId(@Param("documentId") UUID documentId);
+
+    // Every evaluation of a classroom's documents in one statement, without loading them first
+    @Modifying
+    @Query("DELETE FROM Evaluation e WHERE e.document.id IN (SELECT d.id FROM Document d WHERE d.classroom.id = :classroomId)")
+    int deleteByClassroomId(@Param("classroomId") UUID classroomId);
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package citu.stde.repository;
+
+import citu.stde.dto.LlmUsageSummary;
+import citu.stde.entity.LlmUsageRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface LlmUsageRollupRepository extends JpaRepository<LlmUsageRollup, UUID> {
+
+    // Adds one flushed in-memory bucket onto its row (PostgreSQL upsert)
+    @Modifying
+    @Query(value = """
+        INSERT INTO llm_usage_rollups (id, bucket_start, dimension, dimension_key, model, calls, errors,
+                                       prompt_tokens, completion_tokens, total_latency_ms, max_latency_ms)
+        VALUES (gen_random_uuid(), :bucketStart, :dimension, :dimensionKey, :model, :calls, :errors,
+                :promptTokens, :completionTokens, :totalLatencyMs, :maxLatencyMs)
+        ON CONFLICT (bucket_start, dimension, dimension_key, model) DO UPDATE SET
+            calls = llm_usage_rollups.calls + EXCLUDED.calls,
+            errors = llm_usage_rollups.errors + EXCLUDED.errors,
+            prompt_tokens = llm_usage_rollups.prompt_tokens + EXCLUDED.prompt_tokens,
+            completion_tokens = llm_usage_rollups.completion_tokens + EXCLUDED.completion_tokens,
+            total_latency_ms = llm_usage_rollups.total_latency_ms + EXCLUDED.total_latency_ms,
+            max_latency_ms = GREATEST(llm_usage_rollups.max_latency_ms, EXCLUDED.max_latency_ms)
+        """, nativeQuery = true)
+    void upsert(@Param("bucketStart") Instant bucketStart,
+                @Param("dimension") String dimension,
+                @Param("dimensionKey") String dimensionKey,
+                @Param("model") String model,
+                @Param("calls") long calls,
+                @Param("errors") long errors,
+                @Param("promptTokens") long promptTokens,
+                @Param("completionTokens") long completionTokens,
+                @Param("totalLatencyMs") long totalLatencyMs,
+                @Param("maxLatencyMs") long maxLatencyMs);
+
+    @Query("""
+        SELECT r.dimensionKey AS dimensionKey, r.model AS model,
+               SUM(r.calls) AS calls, SUM(r.errors) AS errors,
+               SUM(r.promptTokens) AS promptTokens, SUM(r.completionTokens) AS completionTokens,
+               SUM(r.totalLatencyMs) AS totalLatencyMs, MAX(r.maxLatencyMs) AS maxLatencyMs
+        FROM LlmUsageRollup r
+        WHERE r.dimension = :dimension AND r.bucketStart >= :since
+        GROUP BY r.dimensionKey, r.model
+        ORDER BY SUM(r.promptTokens) + SUM(r.completionTokens) DESC
+        """)
+    List<LlmUsageSummary> summarize(@Param("dimension") String dimension, @Param("since") Instant since);
+}
@@ -1,10 +1,15 @@
 package citu.stde.repository;
 
+import citu.stde.dto.EvaluationQuotaWindow;
 import citu.stde.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -17,4 +22,13 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     Optional<User> findByGoogleId(String googleId);
     boolean existsByGoogleId(String googleId);
+
+    @Query("SELECT u.evaluationCount AS evaluationCount, u.evaluationWindowStart AS evaluationWindowStart FROM User u WHERE u.id = :id")
+    Optional<EvaluationQuotaWindow> findEvaluationQuotaWindow(@Param("id") UUID id);
+
+    // Written only by EvaluationQuotaService's flush; entity saves never touch these columns
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE users SET eval_count = :count, eval_window_start = :windowStart WHERE id = :id", nativeQuery = true)
+    int updateEvaluationQuota(@Param("id") UUID id, @Param("count") int count, @Param("windowStart") Instant windowStart);
 }
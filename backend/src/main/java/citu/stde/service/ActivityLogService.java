@@ -0,0 +1,122 @@
+package citu.stde.service;
+
+import citu.stde.dto.CursorPage;
+import citu.stde.dto.PageCursor;
+import citu.stde.entity.ActivityLog;
+import citu.stde.entity.ActivityLogRollup;
+import citu.stde.repository.ActivityLogRepository;
+import citu.stde.repository.ActivityLogRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Reads and housekeeping for the admin activity log.
+ *
+ * Listings are always bounded: a time range, optional action / user filters and a keyset page,
+ * each served by an index on activity_logs. Counts per action are kept as UTC hourly and daily
+ * rollups, recounted from the raw rows on a schedule (idempotent, so a rerun never double counts).
+ * Raw rows older than {@code retention-days} are deleted in small batches; daily rollups are kept
+ * for good, hourly ones for {@code hourly-retention-days}.
+ */
+@Service
+@RequiredArgsConstructor
+public class ActivityLogService {
+
+    public static final String HOUR = "HOUR";
+    public static final String DAY = "DAY";
+
+    private final ActivityLogRepository logRepository;
+    private final ActivityLogRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.activity-log.retention-days:180}")
+    private int retentionDays;
+
+    @Value("${app.activity-log.rollup.hourly-retention-days:90}")
+    private int hourlyRetentionDays;
+
+    @Value("${app.activity-log.retention.batch-size:5000}")
+    private int deleteBatchSize;
+
+    // When the last successful recount started: rows before it are counted. Null until the first run
+    private volatile Instant countedUpTo;
+
+    @Transactional(readOnly = true)
+    public CursorPage<ActivityLog> getLogs(Instant from, Instant to, String action, String userEmail,
+                                           String cursor, Integer limit) {
+        PageCursor after = PageCursor.decode(cursor);
+        int size = PageCursor.pageSize(limit);
+        List<ActivityLog> rows = logRepository.search(
+                from != null ? from : Instant.EPOCH,
+                to != null ? to : PageCursor.FIRST.timestamp(),
+                blankToNull(action), blankToNull(userEmail),
+                after.timestamp(), after.id(), Limit.of(size + 1));
+        return CursorPage.of(rows, size, log -> log, log -> new PageCursor(log.getTimestamp(), log.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ActivityLogRollup> getRollups(String granularity, Instant from, Instant to, String action) {
+        return rollupRepository.findBuckets(granularity, from, to, blankToNull(action));
+    }
+
+    /**
+     * Recounts every day since the last successful recount, and at least yesterday and today (UTC),
+     * so neither downtime nor failed runs leave a gap. After a restart the mark is the newest day
+     * already in the rollup table; the first run after the table is created counts the whole history.
+     */
+    @Scheduled(fixedDelayString = "${app.activity-log.rollup.interval-ms:300000}")
+    public void refreshRollups() {
+        Instant startedAt = Instant.now();
+        try {
+            Instant mark = countedUpTo != null ? countedUpTo
+                    : rollupRepository.findLatestBucketStart(DAY).orElse(Instant.EPOCH);
+            Instant yesterday = startedAt.truncatedTo(ChronoUnit.DAYS).minus(Duration.ofDays(1));
+            Instant since = mark.truncatedTo(ChronoUnit.DAYS).isBefore(yesterday)
+                    ? mark.truncatedTo(ChronoUnit.DAYS) : yesterday;
+            transactionTemplate.executeWithoutResult(status -> {
+                rollupRepository.recount(HOUR, "hour", since);
+                rollupRepository.recount(DAY, "day", since);
+            });
+            // Only moved on success: a failed run is covered by the next one
+            countedUpTo = startedAt;
+        } catch (RuntimeException e) {
+            System.err.println("Warning: Failed to refresh activity log rollups: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${app.activity-log.retention.cron:0 30 3 * * *}")
+    public void applyRetention() {
+        // Count what is about to go first, so the daily totals outlive the rows
+        refreshRollups();
+
+        Instant cutoff = Instant.now().minus(Duration.ofDays(retentionDays));
+        long deleted = 0;
+        int batch;
+        do {
+            // One short transaction per batch, never one long lock over the whole table
+            batch = transactionTemplate.execute(status -> logRepository.deleteOlderThan(cutoff, deleteBatchSize));
+            deleted += batch;
+        } while (batch == deleteBatchSize);
+
+        Instant hourlyCutoff = Instant.now().minus(Duration.ofDays(hourlyRetentionDays));
+        transactionTemplate.executeWithoutResult(status -> rollupRepository.deleteOlderThan(HOUR, hourlyCutoff));
+
+        if (deleted > 0) {
+            System.out.println("Activity log retention: deleted " + deleted + " entries older than " + cutoff);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
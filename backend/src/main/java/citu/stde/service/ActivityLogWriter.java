@@ -0,0 +1,169 @@
+package citu.stde.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Asynchronous activity log: callers put an event into a bounded in-memory ring buffer and return
+ * at once; one background thread drains it into JDBC batch inserts.
+ *
+ * When the buffer is full the configured overflow policy decides:
+ * <ul>
+ *   <li>{@code DROP_NEWEST} – the new event is discarded (default);</li>
+ *   <li>{@code DROP_OLDEST} – the oldest buffered event is discarded to make room;</li>
+ *   <li>{@code CALLER_RUNS} – the caller inserts the event itself (no loss, but the request waits).</li>
+ * </ul>
+ * Every discarded event is counted. Whatever is buffered is written on shutdown.
+ */
+@Service
+@RequiredArgsConstructor
+public class ActivityLogWriter {
+
+    public enum OverflowPolicy { DROP_NEWEST, DROP_OLDEST, CALLER_RUNS }
+
+    private static final String INSERT =
+            "INSERT INTO activity_logs (id, action, details, user_email, timestamp) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.activity-log.buffer-size:10000}")
+    private int bufferSize;
+
+    @Value("${app.activity-log.batch-size:500}")
+    private int batchSize;
+
+    // Longest an event waits in the buffer when traffic is too low to fill a batch
+    @Value("${app.activity-log.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${app.activity-log.overflow-policy:DROP_NEWEST}")
+    private OverflowPolicy overflowPolicy;
+
+    private BlockingQueue<Event> buffer;
+    private Thread writer;
+    private volatile boolean running;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder callerWrites = new LongAdder();
+
+    private record Event(UUID id, String action, String details, String userEmail, Instant timestamp) {}
+
+    @PostConstruct
+    void start() {
+        buffer = new ArrayBlockingQueue<>(bufferSize);
+        running = true;
+        writer = Thread.ofPlatform().name("activity-log-writer").daemon(true).start(this::drainLoop);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // The writer has stopped (or is stuck); write what is left from this thread
+        List<Event> rest = new ArrayList<>();
+        buffer.drainTo(rest);
+        for (int from = 0; from < rest.size(); from += batchSize) {
+            write(rest.subList(from, Math.min(rest.size(), from + batchSize)));
+        }
+    }
+
+    public void log(String action, String email, String details) {
+        Event event = new Event(UUID.randomUUID(), action, details, email, Instant.now());
+        enqueued.increment();
+        if (buffer.offer(event)) return;
+
+        switch (overflowPolicy) {
+            case DROP_NEWEST -> dropped.increment();
+            case DROP_OLDEST -> {
+                // Retried because the writer (or another caller) may race us for the freed slot
+                while (!buffer.offer(event)) {
+                    if (buffer.poll() != null) dropped.increment();
+                }
+            }
+            case CALLER_RUNS -> {
+                callerWrites.increment();
+                write(List.of(event));
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("overflowPolicy", overflowPolicy);
+        stats.put("queueDepth", buffer.size());
+        stats.put("capacity", bufferSize);
+        stats.put("enqueued", enqueued.sum());
+        stats.put("written", written.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("failed", failed.sum());
+        stats.put("batches", batches.sum());
+        stats.put("averageBatchSize", batches.sum() == 0 ? 0.0 : (double) written.sum() / batches.sum());
+        stats.put("callerWrites", callerWrites.sum());
+        return stats;
+    }
+
+    private void drainLoop() {
+        List<Event> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Event first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                // stop() drains the rest
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // One round trip per batch; a failed batch is counted and dropped so a database outage cannot
+    // grow memory without bound
+    private void write(List<Event> events) {
+        if (events.isEmpty()) return;
+        try {
+            jdbcTemplate.batchUpdate(INSERT, events, events.size(), (statement, event) -> {
+                statement.setObject(1, event.id());
+                statement.setString(2, event.action());
+                statement.setString(3, event.details());
+                statement.setString(4, event.userEmail());
+                statement.setObject(5, OffsetDateTime.ofInstant(event.timestamp(), ZoneOffset.UTC));
+            });
+            written.add(events.size());
+            batches.increment();
+        } catch (RuntimeException e) {
+            failed.add(events.size());
+            System.err.println("Warning: Failed to write " + events.size() + " activity log entries: " + e.getMessage());
+        }
+    }
+}
@@ -1,42 +1,26 @@
 package citu.stde.service;
 
-import citu.stde.entity.ActivityLog;
-import citu.stde.repository.ActivityLogRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
-import java.time.Instant;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class AdminService {
 
-    private final ActivityLogRepository logRepository;
+    private final ActivityLogWriter activityLogWriter;
     private final DataSource dataSource;
-    private final ChatClient.Builder chatClientBuilder;
+    private final LlmGateway llmGateway;
 
     // --- ACTIVITY LOGS ---
 
-    @Async // Run in background to not block main thread
+    // Buffered and batch-inserted in the background; never waits on the database
     public void logActivity(String action, String email, String details) {
-        ActivityLog log = ActivityLog.builder()
-                .action(action)
-                .userEmail(email)
-                .details(details)
-                .timestamp(Instant.now())
-                .build();
-        logRepository.save(log);
-    }
-
-    public List<ActivityLog> getAllLogs() {
-        return logRepository.findAllByOrderByTimestampDesc();
+        activityLogWriter.log(action, email, details);
     }
 
     // --- SYSTEM HEALTH ---
@@ -58,8 +42,7 @@ public class AdminService {
         // 2. OpenAI / GPT Check
         try {
             // Simple ping to AI model
-            ChatClient client = chatClientBuilder.build();
-            String response = client.prompt().user("ping").call().content();
+            String response = llmGateway.callContent(LlmCallContext.system("admin-health"), null, "ping", Map.of());
             if (response != null) health.put("openai", "UP");
             else health.put("openai", "DOWN (Empty Response)");
         } catch (Exception e) {
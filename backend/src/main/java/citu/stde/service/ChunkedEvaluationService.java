@@ -0,0 +1,233 @@
+package citu.stde.service;
+
+import citu.stde.dto.EvaluationResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Map-reduce scoring for long test documents.
+ *
+ * The text is split into token-bounded sections along headings, test case ids and paragraph
+ * breaks. Sections are scored in parallel on a small shared pool (so one huge submission
+ * cannot take every OpenAI slot), then the per-section scores are merged into one
+ * {@link EvaluationResponse}, weighted by section size.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChunkedEvaluationService {
+
+    // Rough OpenAI average for English text; good enough for budgeting
+    private static final int CHARS_PER_TOKEN = 4;
+
+    // Lines that start a new logical section in a test document
+    private static final Pattern SECTION_START = Pattern.compile(
+            "^\\s*(\\d+(\\.\\d+)*\\.?\\s+\\S.*"              // 1. / 2.3 Numbered headings
+            + "|(?i:test\\s*case|tc)[\\s#:_-]*\\d+.*"       // Test Case 4 / TC-004
+            + "|[A-Z][A-Z0-9 /&-]{3,}"                      // ALL CAPS HEADINGS
+            + ")$");
+
+    private final LlmGateway llmGateway;
+    private final HedgedRequestService hedgedRequestService;
+
+    @Value("${app.evaluation.chunking.enabled:true}")
+    private boolean enabled;
+
+    // Documents above this estimate are chunked
+    @Value("${app.evaluation.chunking.threshold-tokens:8000}")
+    private int thresholdTokens;
+
+    @Value("${app.evaluation.chunking.chunk-tokens:3000}")
+    private int chunkTokens;
+
+    // Concurrent section calls across all evaluations
+    @Value("${app.evaluation.chunking.max-parallel:4}")
+    private int maxParallel;
+
+    private ExecutorService chunkPool;
+
+    private final LongAdder documents = new LongAdder();
+    private final LongAdder sections = new LongAdder();
+    private final LongAdder estimatedTokens = new LongAdder();
+
+    @PostConstruct
+    void startPool() {
+        AtomicInteger threadCount = new AtomicInteger();
+        chunkPool = Executors.newFixedThreadPool(maxParallel, runnable -> {
+            Thread thread = new Thread(runnable, "chunk-scorer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stopPool() {
+        chunkPool.shutdownNow();
+    }
+
+    public Map<String, Object> getStats() {
+        long chunked = documents.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("thresholdTokens", thresholdTokens);
+        stats.put("documents", chunked);
+        stats.put("sections", sections.sum());
+        stats.put("avgSectionsPerDocument", chunked == 0 ? 0.0 : (double) sections.sum() / chunked);
+        stats.put("avgEstimatedTokensPerDocument", chunked == 0 ? 0 : estimatedTokens.sum() / chunked);
+        return stats;
+    }
+
+    public boolean shouldChunk(String content) {
+        return enabled && content != null && estimateTokens(content) > thresholdTokens;
+    }
+
+    /**
+     * Sections of at most chunk-tokens each, cut on section boundaries where possible.
+     */
+    public List<String> split(String content) {
+        int maxChars = chunkTokens * CHARS_PER_TOKEN;
+        List<String> chunks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        StringBuilder block = new StringBuilder();
+
+        for (String line : content.split("\\R", -1)) {
+            boolean boundary = line.isBlank() || SECTION_START.matcher(line).matches();
+            if (boundary && block.length() > 0) {
+                addBlock(chunks, current, block, maxChars);
+                block.setLength(0);
+            }
+            if (line.isBlank()) {
+                if (block.length() > 0) block.append('\n');
+                continue;
+            }
+            block.append(line).append('\n');
+        }
+        if (block.length() > 0) addBlock(chunks, current, block, maxChars);
+        if (current.length() > 0) chunks.add(current.toString());
+        return chunks;
+    }
+
+    public EvaluationResponse evaluate(String content, LlmCallContext context) {
+        List<String> chunks = split(content);
+        documents.increment();
+        sections.add(chunks.size());
+        estimatedTokens.add(estimateTokens(content));
+
+        List<Future<EvaluationResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            String chunk = chunks.get(i);
+            String position = "Section " + (i + 1) + " of " + chunks.size();
+            futures.add(chunkPool.submit(() -> scoreChunk(position, chunk, context)));
+        }
+
+        List<EvaluationResponse> results = new ArrayList<>();
+        try {
+            for (Future<EvaluationResponse> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(f -> f.cancel(true));
+            throw new RuntimeException("Chunked evaluation interrupted", e);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException re ? re : new RuntimeException(cause.getMessage(), cause);
+        }
+
+        return reduce(results, chunks.stream().map(String::length).toList());
+    }
+
+    public static int estimateTokens(String content) {
+        return content.length() / CHARS_PER_TOKEN;
+    }
+
+    private EvaluationResponse scoreChunk(String position, String chunk, LlmCallContext context) {
+        EvaluationResponse response = hedgedRequestService.call(() -> llmGateway.callEntity(
+                        context.withEndpoint("evaluate-chunk"),
+                        EvaluationPrompts.CHUNK_SCORING_SYSTEM_PROMPT,
+                        "{position}\nDocument Section:\n{content}",
+                        Map.of("position", position, "content", chunk),
+                        EvaluationResponse.class),
+                EvaluationService::hasScores);
+
+        if (!EvaluationService.hasScores(response)) {
+            throw new RuntimeException("AI returned null scores for " + position + ".");
+        }
+        return response;
+    }
+
+    // Packs a block into the current chunk, flushing first if it would overflow
+    private void addBlock(List<String> chunks, StringBuilder current, StringBuilder block, int maxChars) {
+        if (current.length() > 0 && current.length() + block.length() > maxChars) {
+            chunks.add(current.toString());
+            current.setLength(0);
+        }
+        if (block.length() <= maxChars) {
+            current.append(block).append('\n');
+            return;
+        }
+        // A single oversized block (e.g. one huge table): hard-split it
+        for (int start = 0; start < block.length(); start += maxChars) {
+            if (current.length() > 0) {
+                chunks.add(current.toString());
+                current.setLength(0);
+            }
+            current.append(block, start, Math.min(block.length(), start + maxChars));
+        }
+    }
+
+    private EvaluationResponse reduce(List<EvaluationResponse> results, List<Integer> weights) {
+        return new EvaluationResponse(
+                weightedScore(results, weights, EvaluationResponse::completenessScore),
+                mergedFeedback(results, EvaluationResponse::completenessFeedback),
+                weightedScore(results, weights, EvaluationResponse::clarityScore),
+                mergedFeedback(results, EvaluationResponse::clarityFeedback),
+                weightedScore(results, weights, EvaluationResponse::consistencyScore),
+                mergedFeedback(results, EvaluationResponse::consistencyFeedback),
+                weightedScore(results, weights, EvaluationResponse::verificationScore),
+                mergedFeedback(results, EvaluationResponse::verificationFeedback),
+                weightedScore(results, weights, EvaluationResponse::overallScore),
+                mergedFeedback(results, EvaluationResponse::overallFeedback));
+    }
+
+    private Integer weightedScore(List<EvaluationResponse> results, List<Integer> weights,
+                                  Function<EvaluationResponse, Integer> score) {
+        long total = 0;
+        long weightSum = 0;
+        for (int i = 0; i < results.size(); i++) {
+            Integer value = score.apply(results.get(i));
+            if (value == null) continue;
+            total += (long) value * weights.get(i);
+            weightSum += weights.get(i);
+        }
+        return weightSum == 0 ? null : (int) Math.round((double) total / weightSum);
+    }
+
+    private String mergedFeedback(List<EvaluationResponse> results, Function<EvaluationResponse, String> feedback) {
+        if (results.size() == 1) return feedback.apply(results.get(0));
+        StringBuilder merged = new StringBuilder();
+        for (int i = 0; i < results.size(); i++) {
+            String text = feedback.apply(results.get(i));
+            if (text == null || text.isBlank()) continue;
+            if (merged.length() > 0) merged.append('\n');
+            merged.append("Section ").append(i + 1).append(": ").append(text.trim());
+        }
+        return merged.toString();
+    }
+}
@@ -0,0 +1,373 @@
+package citu.stde.service;
+
+import citu.stde.config.ConnectionPoolMetrics;
+import citu.stde.dto.ClassroomEvaluationBatchDTO;
+import citu.stde.dto.EvaluationDTO;
+import citu.stde.entity.DocumentStatus;
+import citu.stde.repository.DocumentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Teacher "evaluate all submissions" for a classroom.
+ *
+ * Each batch has a coordinator that hands documents to a shared worker pool while keeping at most
+ * {@code parallelism} of them in flight. A 429 from OpenAI halves the batch's parallelism, pauses it for
+ * the Retry-After hint and re-queues the document; every {@code parallelism} successes in a row add one
+ * slot back, up to {@code max-parallel}. Documents whose stored content hash is already in the
+ * evaluation cache are completed without a Drive download or AI call.
+ *
+ * Bulk runs are started by the classroom's teacher and are not charged to anyone's hourly quota.
+ */
+@Service
+@RequiredArgsConstructor
+public class ClassroomEvaluationBatchService {
+
+    private final EvaluationService evaluationService;
+    private final EvaluationClaims evaluationClaims;
+    private final ClassroomService classroomService;
+    private final DocumentRepository documentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Upper bound of concurrent AI evaluations per batch (and size of the shared worker pool)
+    @Value("${app.evaluation.bulk.max-parallel:4}")
+    private int maxParallel;
+
+    // Tries per document when OpenAI keeps answering 429
+    @Value("${app.evaluation.bulk.max-attempts:3}")
+    private int maxAttempts;
+
+    // Back-off when a 429 carries no retry hint
+    @Value("${app.evaluation.bulk.default-retry-seconds:30}")
+    private long defaultRetrySeconds;
+
+    @Value("${app.evaluation.bulk.batch-retention-minutes:120}")
+    private long batchRetentionMinutes;
+
+    private final Map<UUID, Batch> batches = new ConcurrentHashMap<>();
+    private final Map<UUID, UUID> activeBatchByClassroom = new ConcurrentHashMap<>();
+
+    private ExecutorService coordinators;
+    private ExecutorService workers;
+
+    @PostConstruct
+    void startPools() {
+        // Both pools carry the teacher's SecurityContext: the Drive download uses their OAuth token
+        coordinators = new DelegatingSecurityContextExecutorService(
+                Executors.newFixedThreadPool(2, daemonThreads("bulk-evaluation-coordinator-")));
+        workers = new DelegatingSecurityContextExecutorService(
+                Executors.newFixedThreadPool(maxParallel, daemonThreads("bulk-evaluation-worker-")));
+    }
+
+    @PreDestroy
+    void stopPools() {
+        coordinators.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Starts evaluating every submitted document of the classroom. A classroom with a batch
+     * still running returns that batch.
+     *
+     * @param includeEvaluated re-evaluate documents that already have a COMPLETED evaluation
+     */
+    public ClassroomEvaluationBatchDTO startBatch(UUID classId, UUID teacherId, boolean includeEvaluated) {
+        classroomService.verifyClassroomOwnership(classId, teacherId);
+        purgeFinishedBatches();
+
+        UUID runningBatchId = activeBatchByClassroom.get(classId);
+        if (runningBatchId != null && batches.containsKey(runningBatchId)) {
+            return batches.get(runningBatchId).toDTO();
+        }
+
+        List<Item> items = transactionTemplate.execute(status ->
+                documentRepository.findByClassroomIdAndIsSubmittedTrueOrderByUploadDateDesc(classId).stream()
+                        .map(doc -> new Item(doc.getId(), doc.getFilename(), doc.getStatus()))
+                        .toList());
+
+        Batch batch = new Batch(UUID.randomUUID(), classId, teacherId, Math.max(1, maxParallel));
+        for (Item item : items) {
+            if (item.documentStatus == DocumentStatus.PROCESSING) {
+                item.finish("SKIPPED", null, "Evaluation already in progress");
+            } else if (item.documentStatus == DocumentStatus.COMPLETED && !includeEvaluated) {
+                item.finish("SKIPPED", null, "Already evaluated");
+            } else {
+                batch.pending.add(item);
+            }
+            batch.items.add(item);
+        }
+
+        batches.put(batch.batchId, batch);
+        UUID concurrentBatchId = activeBatchByClassroom.putIfAbsent(classId, batch.batchId);
+        if (concurrentBatchId != null) {
+            // Lost a race with a concurrent request for the same classroom
+            batches.remove(batch.batchId);
+            return batches.get(concurrentBatchId).toDTO();
+        }
+        coordinators.execute(() -> coordinate(batch));
+        return batch.toDTO();
+    }
+
+    public ClassroomEvaluationBatchDTO getBatch(UUID batchId, UUID teacherId) {
+        Batch batch = batches.get(batchId);
+        if (batch == null) {
+            throw new IllegalArgumentException("Evaluation batch not found");
+        }
+        if (!batch.teacherId.equals(teacherId)) {
+            throw new SecurityException("Unauthorized access to evaluation batch");
+        }
+        return batch.toDTO();
+    }
+
+    private void coordinate(Batch batch) {
+        ConnectionPoolMetrics.bindEndpoint("bulk-evaluation");
+        try {
+            applyCachedResults(batch);
+
+            while (true) {
+                Item next;
+                synchronized (batch) {
+                    next = awaitNextSlot(batch);
+                }
+                if (next == null) break;
+
+                Item item = next;
+                workers.execute(() -> evaluate(batch, item));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            batch.finishedAt = Instant.now();
+            activeBatchByClassroom.remove(batch.classroomId, batch.batchId);
+            ConnectionPoolMetrics.clearEndpoint();
+        }
+    }
+
+    // Cache hits need no Drive or OpenAI call, so they are settled before any slot is used
+    private void applyCachedResults(Batch batch) {
+        List<Item> pending;
+        synchronized (batch) {
+            pending = new ArrayList<>(batch.pending);
+        }
+        for (Item item : pending) {
+            // Being evaluated by a student's job: stays queued, evaluate() settles it
+            if (evaluationClaims.claim(item.documentId, item) != null) continue;
+            try {
+                Optional<EvaluationDTO> cached = evaluationService.applyCachedEvaluation(item.documentId);
+                if (cached.isPresent()) {
+                    synchronized (batch) {
+                        batch.pending.remove(item);
+                    }
+                    item.finish("CACHED", cached.get().getOverallScore(), null);
+                }
+            } catch (RuntimeException e) {
+                // Leave it queued; the full evaluation will surface any real problem
+                System.err.println("Warning: Cache check failed for " + item.documentId + ": " + e.getMessage());
+            } finally {
+                evaluationClaims.release(item.documentId, item);
+            }
+        }
+    }
+
+    // Caller holds the batch lock. Returns null once nothing is pending or in flight.
+    private Item awaitNextSlot(Batch batch) throws InterruptedException {
+        while (true) {
+            if (batch.pending.isEmpty() && batch.inFlight == 0) {
+                return null;
+            }
+            long pauseMillis = batch.pausedUntil == null ? 0 : batch.pausedUntil.toEpochMilli() - System.currentTimeMillis();
+            if (pauseMillis > 0) {
+                batch.wait(pauseMillis);
+                continue;
+            }
+            if (!batch.pending.isEmpty() && batch.inFlight < batch.parallelism) {
+                Item item = batch.pending.poll();
+                batch.inFlight++;
+                item.state = "RUNNING";
+                item.attempts++;
+                return item;
+            }
+            batch.wait();
+        }
+    }
+
+    private void evaluate(Batch batch, Item item) {
+        ConnectionPoolMetrics.bindEndpoint("bulk-evaluation");
+        try {
+            // A student's own job (or another batch) is evaluating it: running both would pay twice
+            if (evaluationClaims.claim(item.documentId, item) != null) {
+                item.finish("SKIPPED", null, "Evaluation already in progress");
+                return;
+            }
+            EvaluationDTO result = evaluationService.evaluateClassroomSubmission(item.documentId, batch.teacherId);
+            item.finish("COMPLETED", result.getOverallScore(), null);
+            synchronized (batch) {
+                onSuccess(batch);
+            }
+        } catch (Exception e) {
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            boolean rateLimited = message.startsWith("TYPE:RATE_LIMIT");
+            if (rateLimited && item.attempts < maxAttempts) {
+                // Claimed per attempt: released before the item can be picked up again
+                evaluationClaims.release(item.documentId, item);
+                synchronized (batch) {
+                    onRateLimited(batch, message);
+                    item.state = "QUEUED";
+                    batch.pending.addFirst(item);
+                }
+            } else {
+                item.finish("FAILED", null, message.contains("|") ? message.substring(message.indexOf('|') + 1) : message);
+            }
+        } finally {
+            evaluationClaims.release(item.documentId, item);
+            synchronized (batch) {
+                batch.inFlight--;
+                batch.notifyAll();
+            }
+            ConnectionPoolMetrics.clearEndpoint();
+        }
+    }
+
+    // Additive increase: one extra slot after a full window of successes
+    private void onSuccess(Batch batch) {
+        batch.successesSinceChange++;
+        if (batch.parallelism < maxParallel && batch.successesSinceChange >= batch.parallelism) {
+            batch.parallelism++;
+            batch.successesSinceChange = 0;
+        }
+    }
+
+    // Multiplicative decrease plus a pause for the whole batch
+    private void onRateLimited(Batch batch, String message) {
+        batch.rateLimitRetries++;
+        batch.parallelism = Math.max(1, batch.parallelism / 2);
+        batch.successesSinceChange = 0;
+
+        long waitSeconds = LlmGateway.retryAfterSeconds(message).orElse(defaultRetrySeconds);
+        Instant resumeAt = Instant.now().plusSeconds(waitSeconds);
+        if (batch.pausedUntil == null || resumeAt.isAfter(batch.pausedUntil)) {
+            batch.pausedUntil = resumeAt;
+        }
+    }
+
+    private void purgeFinishedBatches() {
+        Instant cutoff = Instant.now().minus(batchRetentionMinutes, ChronoUnit.MINUTES);
+        batches.values().removeIf(batch -> batch.finishedAt != null && batch.finishedAt.isBefore(cutoff));
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class Batch {
+        private final UUID batchId;
+        private final UUID classroomId;
+        private final UUID teacherId;
+        private final Instant submittedAt = Instant.now();
+        private final List<Item> items = new ArrayList<>();
+
+        // Guarded by the batch lock
+        private final Deque<Item> pending = new ArrayDeque<>();
+        private int inFlight;
+        private int parallelism;
+        private int successesSinceChange;
+        private int rateLimitRetries;
+        private Instant pausedUntil;
+
+        private volatile Instant finishedAt;
+
+        private Batch(UUID batchId, UUID classroomId, UUID teacherId, int parallelism) {
+            this.batchId = batchId;
+            this.classroomId = classroomId;
+            this.teacherId = teacherId;
+            this.parallelism = parallelism;
+        }
+
+        private synchronized ClassroomEvaluationBatchDTO toDTO() {
+            Map<String, Integer> counts = new HashMap<>();
+            List<ClassroomEvaluationBatchDTO.Item> itemDTOs = new ArrayList<>();
+            for (Item item : items) {
+                counts.merge(item.state, 1, Integer::sum);
+                itemDTOs.add(item.toDTO());
+            }
+            return ClassroomEvaluationBatchDTO.builder()
+                    .batchId(batchId)
+                    .classroomId(classroomId)
+                    .status(finishedAt == null ? DocumentStatus.PROCESSING : DocumentStatus.COMPLETED)
+                    .total(items.size())
+                    .queued(counts.getOrDefault("QUEUED", 0))
+                    .running(counts.getOrDefault("RUNNING", 0))
+                    .completed(counts.getOrDefault("COMPLETED", 0))
+                    .cached(counts.getOrDefault("CACHED", 0))
+                    .skipped(counts.getOrDefault("SKIPPED", 0))
+                    .failed(counts.getOrDefault("FAILED", 0))
+                    .parallelism(parallelism)
+                    .rateLimitRetries(rateLimitRetries)
+                    .pausedUntil(pausedUntil != null && pausedUntil.isAfter(Instant.now()) ? pausedUntil : null)
+                    .submittedAt(submittedAt)
+                    .finishedAt(finishedAt)
+                    .items(itemDTOs)
+                    .build();
+        }
+    }
+
+    private static class Item {
+        private final UUID documentId;
+        private final String filename;
+        private final DocumentStatus documentStatus;
+
+        private volatile String state = "QUEUED";
+        private volatile int attempts;
+        private volatile Integer overallScore;
+        private volatile String error;
+
+        private Item(UUID documentId, String filename, DocumentStatus documentStatus) {
+            this.documentId = documentId;
+            this.filename = filename;
+            this.documentStatus = documentStatus;
+        }
+
+        private void finish(String finalState, Integer score, String errorMessage) {
+            this.overallScore = score;
+            this.error = errorMessage;
+            this.state = finalState;
+        }
+
+        private ClassroomEvaluationBatchDTO.Item toDTO() {
+            return ClassroomEvaluationBatchDTO.Item.builder()
+                    .documentId(documentId)
+                    .filename(filename)
+                    .state(state)
+                    .attempts(attempts)
+                    .overallScore(overallScore)
+                    .error(error)
+                    .build();
+        }
+    }
+}
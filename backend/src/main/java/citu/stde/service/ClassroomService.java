@@ -1,20 +1,26 @@
 package citu.stde.service;
 
+import citu.stde.config.ConnectionPoolMetrics;
+import citu.stde.dto.ClassroomDTO;
+import citu.stde.dto.CursorPage;
+import citu.stde.dto.PageCursor;
 import citu.stde.entity.Classroom;
-import citu.stde.entity.Document;
 import citu.stde.entity.User;
 import citu.stde.repository.ClassroomRepository;
 import citu.stde.repository.DocumentRepository;
 import citu.stde.repository.EvaluationRepository;
 import citu.stde.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -22,16 +28,20 @@ public class ClassroomService {
 
     private final ClassroomRepository classroomRepository;
     private final GoogleDriveService googleDriveService;
+    private final DriveCleanupService driveCleanupService;
     private final UserRepository userRepository;
     
     private final DocumentRepository documentRepository;
     private final EvaluationRepository evaluationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ConnectionPoolMetrics connectionPoolMetrics;
 
     public void verifyClassroomOwnership(UUID classId, UUID teacherId) {
         classroomRepository.findByIdAndTeacherId(classId, teacherId)
             .orElseThrow(() -> new SecurityException("Unauthorized: User does not own this classroom or it does not exist."));
     }
 
+    @Transactional(readOnly = true)
     public boolean isStudentEnrolled(UUID classId, UUID studentId) {
         Classroom classroom = classroomRepository.findById(classId)
                 .orElseThrow(() -> new IllegalArgumentException("Classroom not found"));
@@ -41,7 +51,7 @@ public class ClassroomService {
     }
 
     // Accept existingFolderId (Optional)
-    @Transactional
+    // Not @Transactional: the Drive folder is created before we touch the pool, then saved in one short insert
     public Classroom createClassroom(String name, String section, String classCode, String existingFolderId, UUID teacherId) {
         if (classroomRepository.findByClassCode(classCode).isPresent()) {
             throw new IllegalArgumentException("Class code '" + classCode + "' is already taken.");
@@ -56,6 +66,7 @@ public class ClassroomService {
                 // (Optional: You could add a check here to verify the folder exists using googleDriveService)
             } else {
                 String folderName = name + " - " + section;
+                connectionPoolMetrics.checkNoConnectionHeld("drive-create-folder");
                 folderId = googleDriveService.createFolder(folderName, null);
             }
 
@@ -90,32 +101,23 @@ public class ClassroomService {
         return classroomRepository.save(classroom);
     }
 
-    @Transactional
+    // A handful of set-based statements in one short transaction, however large the class; the Drive
+    // folder is removed in the background after commit
     public void deleteClassroom(UUID classId, UUID teacherId) {
-        Classroom classroom = classroomRepository.findByIdAndTeacherId(classId, teacherId)
-                .orElseThrow(() -> new SecurityException("Unauthorized: User does not own this classroom."));
-
-        // 1. Delete Folder from Google Drive
-        if (classroom.getDriveFolderId() != null) {
-            try {
-                googleDriveService.deleteFile(classroom.getDriveFolderId());
-            } catch (IOException e) {
-                System.err.println("Warning: Failed to delete Drive folder: " + e.getMessage());
-            }
+        String driveFolderId = transactionTemplate.execute(status -> {
+            Classroom classroom = classroomRepository.findByIdAndTeacherId(classId, teacherId)
+                    .orElseThrow(() -> new SecurityException("Unauthorized: User does not own this classroom."));
+
+            evaluationRepository.deleteByClassroomId(classId);
+            documentRepository.deleteByClassroomId(classId);
+            classroomRepository.deleteEnrollments(classId);
+            classroomRepository.deleteByIdInBulk(classId);
+            return classroom.getDriveFolderId();
+        });
+
+        if (driveFolderId != null && !driveFolderId.isEmpty()) {
+            driveCleanupService.deleteLater(driveFolderId);
         }
-
-        // 2. Cascade Delete: Documents & Evaluations
-        List<Document> documents = documentRepository.findByClassroomIdOrderByUploadDateDesc(classId);
-        
-        for (Document doc : documents) {
-            if (evaluationRepository.findByDocumentId(doc.getId()).isPresent()) {
-                evaluationRepository.deleteByDocumentId(doc.getId());
-            }
-            documentRepository.delete(doc);
-        }
-
-        // 3. Delete Classroom
-        classroomRepository.delete(classroom);
     }
 
     @Transactional
@@ -134,6 +136,25 @@ public class ClassroomService {
         return classroomRepository.save(classroom);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<ClassroomDTO> getTeacherClassrooms(UUID teacherId, String cursor, Integer limit) {
+        PageCursor after = PageCursor.decode(cursor);
+        int size = PageCursor.pageSize(limit);
+        return CursorPage.of(classroomRepository.findListingByTeacherId(teacherId, after.timestamp(), after.id(), Limit.of(size + 1)),
+                size,
+                c -> ClassroomDTO.builder()
+                    .id(c.getId())
+                    .name(c.getName())
+                    .section(c.getSection())
+                    .classCode(c.getClassCode())
+                    .teacherId(c.getTeacherId())
+                    .driveFolderId(c.getDriveFolderId())
+                    .createdAt(c.getCreatedAt())
+                    .studentCount(c.getStudentCount() != null ? c.getStudentCount() : 0)
+                    .build(),
+                c -> new PageCursor(c.getCreatedAt(), c.getId()));
+    }
+
     @Transactional(readOnly = true)
     public List<Classroom> getStudentClassrooms(UUID studentId) {
         return classroomRepository.findByStudents_Id(studentId);
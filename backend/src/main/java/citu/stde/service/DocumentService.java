@@ -1,6 +1,9 @@
 package citu.stde.service;
 
+import citu.stde.dto.CursorPage;
 import citu.stde.dto.DocumentDTO;
+import citu.stde.dto.DocumentListing;
+import citu.stde.dto.PageCursor;
 import citu.stde.entity.Classroom;
 import citu.stde.entity.Document;
 import citu.stde.entity.DocumentStatus;
@@ -11,25 +14,19 @@ import citu.stde.repository.DocumentRepository;
 import citu.stde.repository.EvaluationRepository; 
 import citu.stde.repository.UserRepository;
 
-import com.google.api.client.googleapis.auth.oauth2.GoogleCredential;
-import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
-import com.google.api.client.json.gson.GsonFactory;
-import com.google.api.services.drive.Drive;
 import com.google.api.services.drive.model.File;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
-import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
-import java.security.GeneralSecurityException;
+import java.io.InputStream;
 import java.time.Instant;
-import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 import java.util.Optional;
@@ -44,28 +41,33 @@ public class DocumentService {
     private final ClassroomRepository classroomRepository;
     private final UserRepository userRepository;
     private final EvaluationRepository evaluationRepository; 
-    private final OAuth2AuthorizedClientService clientService;
     private final AdminService adminService; 
 
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024;
 
+    // Streamed uploads are not held by the multipart layer, so they can be larger
+    @Value("${app.upload.stream.max-file-size-mb:50}")
+    private long streamMaxFileSizeMb;
+
     // Get documents for a specific class (Teacher view)
     // Only return SUBMITTED documents
     @Transactional(readOnly = true)
-    public List<DocumentDTO> getDocumentsByClass(UUID classroomId) {
-        return documentRepository.findByClassroomIdAndIsSubmittedTrueOrderByUploadDateDesc(classroomId)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<DocumentDTO> getDocumentsByClass(UUID classroomId, String cursor, Integer limit) {
+        PageCursor after = PageCursor.decode(cursor);
+        int size = PageCursor.pageSize(limit);
+        return CursorPage.of(documentRepository.findSubmittedListingByClassroomId(
+                classroomId, after.timestamp(), after.id(), Limit.of(size + 1)),
+                size, DocumentDTO::from, DocumentService::cursorOf);
     }
 
     // Get documents for a specific student in a class (Student view)
     @Transactional(readOnly = true)
-    public List<DocumentDTO> getDocumentsByClassAndStudent(UUID classroomId, UUID studentId) {
-        return documentRepository.findByClassroomIdAndUserIdOrderByUploadDateDesc(classroomId, studentId)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<DocumentDTO> getDocumentsByClassAndStudent(UUID classroomId, UUID studentId, String cursor, Integer limit) {
+        PageCursor after = PageCursor.decode(cursor);
+        int size = PageCursor.pageSize(limit);
+        return CursorPage.of(documentRepository.findListingByClassroomIdAndUserId(
+                classroomId, studentId, after.timestamp(), after.id(), Limit.of(size + 1)),
+                size, DocumentDTO::from, DocumentService::cursorOf);
     }
 
     // Submit Document Action
@@ -106,15 +108,54 @@ public class DocumentService {
             destinationFolderId = classroom.getDriveFolderId(); 
         }
 
-        File driveFile = googleDriveService.uploadFile(file, destinationFolderId);
+        File driveFile;
+        try (InputStream content = file.getInputStream()) {
+            driveFile = googleDriveService.uploadStream(content, file.getOriginalFilename(), file.getContentType(),
+                    file.getSize(), destinationFolderId);
+        }
+        return saveUploadedDocument(user, classroom, file.getOriginalFilename(), file.getContentType(), file.getSize(),
+                driveFile);
+    }
+
+    /**
+     * Upload whose body is the raw file: the request stream goes straight into a Drive resumable
+     * upload, so the file is never buffered whole on this server (no multipart temp file).
+     */
+    public DocumentDTO uploadDocumentStream(InputStream content, String filename, String contentType, long size,
+                                            UUID userId, UUID classId) throws IOException {
+        if (filename == null || filename.isBlank()) throw new IllegalArgumentException("Filename is required");
+        if (size <= 0) throw new IllegalArgumentException("File is empty");
+        if (size > streamMaxFileSizeMb * 1024 * 1024) {
+            throw new IllegalArgumentException("File is larger than " + streamMaxFileSizeMb + " MB");
+        }
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        Classroom classroom = null;
+        if (classId != null) {
+            classroom = classroomRepository.findById(classId)
+                    .orElseThrow(() -> new IllegalArgumentException("Classroom not found"));
+        }
+
+        File driveFile = googleDriveService.uploadStream(content, filename, contentType,
+                size, classroom != null ? classroom.getDriveFolderId() : null);
+        return saveUploadedDocument(user, classroom, filename, contentType, size, driveFile);
+    }
 
+    private DocumentDTO saveUploadedDocument(User user, Classroom classroom, String filename, String contentType,
+                                             long size, File driveFile) {
+        String fileHash = GoogleDriveService.md5Revision(driveFile);
         Document document = Document.builder()
                 .user(user)
                 .classroom(classroom) 
-                .filename(file.getOriginalFilename())
-                .fileType(file.getContentType())
-                .fileSize(file.getSize())
+                .filename(filename)
+                .fileType(contentType)
+                .fileSize(size)
                 .driveFileId(driveFile.getId())
+                .fileHash(fileHash)
+                // Same bytes evaluated before: evaluation can go straight to the result cache
+                .contentHash(fileHash != null ? documentRepository.findContentHashByFileHash(fileHash).orElse(null) : null)
                 .driveWebViewLink(driveFile.getWebViewLink())
                 .uploadDate(Instant.now())
                 .status(DocumentStatus.UPLOADED)
@@ -125,16 +166,31 @@ public class DocumentService {
         Document savedDocument = documentRepository.save(document);
 
         // Record upload
-        adminService.logActivity("UPLOAD", user.getEmail(), "Uploaded file: " + file.getOriginalFilename());
+        adminService.logActivity("UPLOAD", user.getEmail(), "Uploaded file: " + filename);
 
         return convertToDTO(savedDocument);
     }
 
-    public List<DocumentDTO> getUserDocuments(UUID userId) {
-        return documentRepository.findByUserIdOrderByUploadDateDesc(userId)
-                .stream().map(this::convertToDTO).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPage<DocumentDTO> getUserDocuments(UUID userId, String cursor, Integer limit) {
+        PageCursor after = PageCursor.decode(cursor);
+        int size = PageCursor.pageSize(limit);
+        return CursorPage.of(documentRepository.findListingByUserId(userId, after.timestamp(), after.id(), Limit.of(size + 1)),
+                size, DocumentDTO::from, DocumentService::cursorOf);
+    }
+
+    public long countUserDocuments(UUID userId) {
+        return documentRepository.countByUserId(userId);
+    }
+
+    // Teacher dashboard: latest submissions across all of the teacher's classrooms
+    @Transactional(readOnly = true)
+    public List<DocumentDTO> getRecentSubmissions(UUID teacherId, int limit) {
+        return documentRepository.findSubmittedListingByTeacherId(teacherId, PageRequest.of(0, limit))
+                .stream().map(DocumentDTO::from).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public DocumentDTO getDocumentById(UUID documentId, UUID userId) {
         Document document = documentRepository.findById(documentId)
                 .orElseThrow(() -> new IllegalArgumentException("Document not found"));
@@ -151,6 +207,9 @@ public class DocumentService {
         if (Boolean.TRUE.equals(document.getIsSubmitted())) {
             throw new IllegalArgumentException("Cannot delete a submitted document.");
         }
+
+        // Resolved up front: document.getUser() is a lazy proxy outside a transaction
+        String userEmail = userRepository.findById(userId).map(User::getEmail).orElse(null);
         
         try {
             if (document.getDriveFileId() != null) {
@@ -162,12 +221,10 @@ public class DocumentService {
         documentRepository.delete(document);
 
         // Record deletion
-        adminService.logActivity("DELETE", document.getUser().getEmail(), "Deleted document: " + document.getFilename());
+        adminService.logActivity("DELETE", userEmail, "Deleted document: " + document.getFilename());
     }
 
     public Document copyFromGoogleDrive(String originalFileId, String classIdRaw, UUID userId) throws IOException {
-        Drive userDriveService = buildDriveClientForCurrentUser();
-
         String targetFolderId = "root"; 
         Classroom classroom = null;
 
@@ -181,12 +238,7 @@ public class DocumentService {
             } catch (IllegalArgumentException e) { }
         }
 
-        File copyMetadata = new File();
-        copyMetadata.setParents(Collections.singletonList(targetFolderId));
-
-        File copiedFile = userDriveService.files().copy(originalFileId, copyMetadata)
-                .setFields("id, name, webViewLink, size, mimeType")
-                .execute();
+        File copiedFile = googleDriveService.copyFile(originalFileId, targetFolderId);
 
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
@@ -204,6 +256,11 @@ public class DocumentService {
         doc.setStatus(DocumentStatus.UPLOADED);
         doc.setIsCloudFile(true); 
         doc.setIsSubmitted(false);
+        // Drive checksums the copy itself: no download is needed to recognise bytes evaluated before
+        doc.setFileHash(GoogleDriveService.md5Revision(copiedFile));
+        if (doc.getFileHash() != null) {
+            doc.setContentHash(documentRepository.findContentHashByFileHash(doc.getFileHash()).orElse(null));
+        }
 
         Document saved = documentRepository.save(doc);
 
@@ -213,26 +270,8 @@ public class DocumentService {
         return saved;
     }
 
-    private Drive buildDriveClientForCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null) throw new RuntimeException("No user logged in");
-
-        OAuth2AuthorizedClient client = clientService.loadAuthorizedClient("google", authentication.getName());
-        if (client == null) throw new RuntimeException("User has not authorized Google Drive access");
-
-        String accessToken = client.getAccessToken().getTokenValue();
-        GoogleCredential credential = new GoogleCredential().setAccessToken(accessToken);
-
-        try {
-            return new Drive.Builder(
-                    GoogleNetHttpTransport.newTrustedTransport(), 
-                    GsonFactory.getDefaultInstance(), 
-                    credential)
-                    .setApplicationName("STDE")
-                    .build();
-        } catch (GeneralSecurityException | IOException e) {
-            throw new RuntimeException("Failed to initialize Google Drive client", e);
-        }
+    private static PageCursor cursorOf(DocumentListing row) {
+        return new PageCursor(row.getUploadDate(), row.getId());
     }
 
     private DocumentDTO convertToDTO(Document document) {
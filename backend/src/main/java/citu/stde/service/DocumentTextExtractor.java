@@ -0,0 +1,159 @@
+package citu.stde.service;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Turns a downloaded PDF / DOCX / text stream into plain text with bounded memory.
+ *
+ * PDFs are parsed with a capped main-memory buffer that spills to temp files, and text is pulled
+ * out one page at a time. Every chunk goes through a running SHA-256 and into a builder that
+ * stops growing at {@code maxChars}, so the kept text is bounded by the caller's cap (evaluations
+ * always pass one) rather than by the document size.
+ *
+ * DOCX is the exception: POI parses the whole document into memory and its text is produced as
+ * one String before it reaches the sink, so only the kept copy is capped there.
+ */
+@Service
+public class DocumentTextExtractor {
+
+    public static final String PDF = "application/pdf";
+    public static final String DOCX = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+
+    // Heap PDFBox may use for the raw PDF before spilling to temp files
+    @Value("${app.evaluation.extraction.max-main-memory-mb:8}")
+    private long maxMainMemoryMb;
+
+    /**
+     * @param maxChars text beyond this length is still hashed but not kept
+     */
+    public ExtractedText extract(InputStream inputStream, String contentType, int maxChars) throws IOException {
+        TextSink sink = new TextSink(maxChars);
+        int pages;
+        if (PDF.equals(contentType)) {
+            pages = extractPdf(inputStream, sink);
+        } else if (DOCX.equals(contentType)) {
+            pages = extractDocx(inputStream, sink);
+        } else {
+            pages = extractPlainText(inputStream, sink);
+        }
+        return sink.finish(pages);
+    }
+
+    private int extractPdf(InputStream inputStream, TextSink sink) throws IOException {
+        MemoryUsageSetting memory = MemoryUsageSetting.setupMixed(maxMainMemoryMb * 1024 * 1024);
+        try (PDDocument document = PDDocument.load(inputStream, memory)) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            StringWriter pageText = new StringWriter();
+            int pageCount = document.getNumberOfPages();
+
+            for (int page = 1; page <= pageCount; page++) {
+                stripper.setStartPage(page);
+                stripper.setEndPage(page);
+                pageText.getBuffer().setLength(0);
+                stripper.writeText(document, pageText);
+                sink.append(pageText.getBuffer());
+                if (page < pageCount) sink.pageBreak();
+            }
+            return pageCount;
+        }
+    }
+
+    private int extractDocx(InputStream inputStream, TextSink sink) throws IOException {
+        try (XWPFDocument document = new XWPFDocument(inputStream);
+             XWPFWordExtractor extractor = new XWPFWordExtractor(document)) {
+            sink.append(extractor.getText());
+            return 1;
+        }
+    }
+
+    private int extractPlainText(InputStream inputStream, TextSink sink) throws IOException {
+        Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+        char[] buffer = new char[8192];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            sink.append(buffer, read);
+        }
+        return 1;
+    }
+
+    public record ExtractedText(String content, String contentHash, int pages, long totalChars, boolean truncated) {}
+
+    /**
+     * Receives text chunk by chunk: hashes all of it (UTF-8, same bytes as hashing the whole
+     * String at once) and keeps at most maxChars of it.
+     */
+    private static class TextSink {
+        private final MessageDigest digest;
+        private final Writer hashWriter;
+        private final StringBuilder kept;
+        private final int maxChars;
+        private long totalChars;
+        private int keptPageBreaks;
+
+        TextSink(int maxChars) {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+            // The writer's encoder carries surrogate pairs split across chunks
+            this.hashWriter = new OutputStreamWriter(new DigestOutputStream(OutputStream.nullOutputStream(), digest), StandardCharsets.UTF_8);
+            this.maxChars = maxChars;
+            this.kept = new StringBuilder(Math.min(maxChars, 64 * 1024));
+        }
+
+        void append(CharSequence chunk) throws IOException {
+            hashWriter.append(chunk);
+            keep(chunk, chunk.length());
+            totalChars += chunk.length();
+        }
+
+        void append(char[] chunk, int length) throws IOException {
+            hashWriter.write(chunk, 0, length);
+            keep(CharBuffer.wrap(chunk, 0, length), length);
+            totalChars += length;
+        }
+
+        // Form feed between pages for PromptCompactor; kept only, not hashed, so hashes match older extractions
+        void pageBreak() {
+            if (kept.length() < maxChars) {
+                kept.append('\f');
+                keptPageBreaks++;
+            }
+        }
+
+        private void keep(CharSequence chunk, int length) {
+            int room = maxChars - kept.length();
+            if (room > 0) {
+                kept.append(chunk, 0, Math.min(room, length));
+            }
+        }
+
+        ExtractedText finish(int pages) throws IOException {
+            hashWriter.flush();
+            String hash = HexFormat.of().formatHex(digest.digest());
+            return new ExtractedText(kept.toString(), hash, pages, totalChars, totalChars > kept.length() - keptPageBreaks);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package citu.stde.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local disk copy of raw Drive file bytes, so an unchanged file is downloaded from Google once.
+ *
+ * Blobs are content-addressed: a file with an md5Checksum is stored under that checksum alone, so
+ * copies of the same upload (Drive imports, resubmissions) share one blob. Google-native files have
+ * no checksum and are keyed by file id + headRevisionId / modifiedTime instead. The caller gets the
+ * revision from {@link GoogleDriveService#getFileRevision}, a metadata-only call.
+ *
+ * Reads memory-map the blob, so its bytes go from the page cache to the reader without a heap copy.
+ * The directory is capped at {@code max-mb}; the least recently used blobs are deleted first.
+ */
+@Service
+public class DriveBlobCache {
+
+    private static final String SUFFIX = ".blob";
+
+    @Value("${app.drive.blob-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.drive.blob-cache.dir:${java.io.tmpdir}/stde-blob-cache}")
+    private String directory;
+
+    @Value("${app.drive.blob-cache.max-mb:1024}")
+    private long maxMb;
+
+    private LruFileStore files;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesServed = new LongAdder();
+    private final LongAdder bytesStored = new LongAdder();
+
+    @PostConstruct
+    void init() throws IOException {
+        files = new LruFileStore(Paths.get(directory), SUFFIX, maxMb * 1024 * 1024);
+        files.open();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the cached bytes of this revision, or empty when they have to be downloaded
+     */
+    public Optional<InputStream> open(String driveFileId, String revision) {
+        if (!enabled || driveFileId == null || revision == null) return Optional.empty();
+
+        String fileName = fileName(driveFileId, revision);
+        Path file = files.lookup(fileName);
+        if (file == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        try {
+            MappedByteBuffer mapped = map(file);
+            files.touch(file);
+            hits.increment();
+            bytesServed.add(mapped.remaining());
+            return Optional.of(new ByteBufferInputStream(mapped));
+        } catch (IOException | RuntimeException e) {
+            // Missing or corrupt blob: drop it and download again
+            files.remove(fileName);
+            misses.increment();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes a freshly downloaded file into the cache and returns a stream over the stored copy.
+     * {@code content} is fully consumed; the caller still closes it.
+     *
+     * @throws IOException when the download or the disk write fails (nothing is cached then)
+     */
+    public InputStream store(String driveFileId, String revision, InputStream content) throws IOException {
+        String fileName = fileName(driveFileId, revision);
+        Path temp = files.createTemp("blob");
+        try {
+            long size = Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+            Path file = files.moveIntoPlace(temp, fileName);
+
+            // Mapped before indexing: a blob larger than the whole cap is evicted at once, but the
+            // mapping stays readable for this caller
+            MappedByteBuffer mapped = map(file);
+            bytesStored.add(size);
+            files.added(fileName, size);
+            return new ByteBufferInputStream(mapped);
+        } finally {
+            LruFileStore.deleteQuietly(temp);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long lookups = hits.sum() + misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) hits.sum() / lookups);
+        // Bytes read from disk instead of Drive
+        stats.put("bytesSaved", bytesServed.sum());
+        stats.put("bytesDownloaded", bytesStored.sum());
+        files.putStats(stats);
+        return stats;
+    }
+
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    // An md5 names the content itself; any other revision is only meaningful for its own file
+    private static String fileName(String driveFileId, String revision) {
+        String key = revision.startsWith("md5:") ? revision : driveFileId + ":" + revision;
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash) + SUFFIX;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package citu.stde.service;
+
+import com.google.api.client.http.HttpResponseException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextScheduledExecutorService;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deletes Drive files in the background, so a request never waits on Drive after its rows are gone.
+ *
+ * Each delete runs with the caller's SecurityContext (the Drive token belongs to the user who asked)
+ * and is retried with exponential backoff on 5xx, 429, 401 and I/O errors, up to {@code max-attempts}.
+ * A 404 counts as done. Deletes still pending at shutdown are logged and dropped.
+ */
+@Service
+@RequiredArgsConstructor
+public class DriveCleanupService {
+
+    private final GoogleDriveService googleDriveService;
+
+    @Value("${app.drive.cleanup.max-attempts:5}")
+    private int maxAttempts;
+
+    // Doubled after every failed attempt
+    @Value("${app.drive.cleanup.initial-backoff-ms:2000}")
+    private long initialBackoffMs;
+
+    private ScheduledThreadPoolExecutor pool;
+    private ScheduledExecutorService executor;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder deleted = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @PostConstruct
+    void start() {
+        pool = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "drive-cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Carries the caller's SecurityContext into every attempt, retries included
+        executor = new DelegatingSecurityContextScheduledExecutorService(pool);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+        if (pending.get() > 0) {
+            System.err.println("Warning: " + pending.get() + " Drive deletes were still pending at shutdown");
+        }
+    }
+
+    public void deleteLater(String fileId) {
+        if (fileId == null) return;
+        pending.incrementAndGet();
+        executor.execute(() -> attempt(fileId, 1));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", pending.get());
+        stats.put("deleted", deleted.sum());
+        stats.put("retries", retries.sum());
+        stats.put("failed", failed.sum());
+        stats.put("maxAttempts", maxAttempts);
+        return stats;
+    }
+
+    private void attempt(String fileId, int attempt) {
+        try {
+            googleDriveService.deleteFile(fileId);
+            deleted.increment();
+        } catch (IOException e) {
+            if (isGone(e)) {
+                deleted.increment();
+            } else if (attempt < maxAttempts && isRetryable(e)) {
+                retries.increment();
+                long delayMs = initialBackoffMs << (attempt - 1);
+                executor.schedule(() -> attempt(fileId, attempt + 1), delayMs, TimeUnit.MILLISECONDS);
+                return;
+            } else {
+                failed.increment();
+                System.err.println("Warning: Failed to delete Drive file " + fileId + " after " + attempt
+                        + " attempt(s): " + e.getMessage());
+            }
+        }
+        pending.decrementAndGet();
+    }
+
+    private static boolean isGone(IOException e) {
+        return e instanceof HttpResponseException http && http.getStatusCode() == 404;
+    }
+
+    // 401 is retried because GoogleDriveService drops the rejected client and the next attempt reloads it
+    private static boolean isRetryable(IOException e) {
+        if (!(e instanceof HttpResponseException http)) return true;
+        int status = http.getStatusCode();
+        return status >= 500 || status == 429 || status == 401;
+    }
+}
@@ -0,0 +1,196 @@
+package citu.stde.service;
+
+import com.google.api.client.http.HttpBackOffIOExceptionHandler;
+import com.google.api.client.http.HttpBackOffUnsuccessfulResponseHandler;
+import com.google.api.client.http.HttpIOExceptionHandler;
+import com.google.api.client.http.HttpMethods;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.HttpUnsuccessfulResponseHandler;
+import com.google.api.client.http.apache.v2.ApacheHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.util.ExponentialBackOff;
+import com.google.api.services.drive.Drive;
+import com.google.auth.http.HttpCredentialsAdapter;
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Builds Drive clients for the current user.
+ *
+ * All clients share one pooled keep-alive HTTP transport, so TLS handshakes and connections are
+ * reused across calls and users. Each user's client is cached until shortly before their access
+ * token expires, so a Drive call does not reload the OAuth2 authorized client every time.
+ */
+@Component
+@RequiredArgsConstructor
+public class DriveClientProvider {
+
+    private static final String APPLICATION_NAME = "STDE Platform";
+    private static final GsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+
+    private final OAuth2AuthorizedClientService authorizedClientService;
+
+    @Value("${app.drive.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${app.drive.http.idle-timeout-seconds:60}")
+    private long idleTimeoutSeconds;
+
+    // A cached client is dropped this long before its token expires, so no call starts on a dying token
+    @Value("${app.drive.client-cache.expiry-skew-seconds:60}")
+    private long expirySkewSeconds;
+
+    @Value("${app.drive.client-cache.max-entries:1000}")
+    private int maxEntries;
+
+    // Total time one request (or one upload chunk) may spend retrying 5xx / I/O errors
+    @Value("${app.drive.retry.max-elapsed-ms:30000}")
+    private long retryMaxElapsedMs;
+
+    private HttpTransport transport;
+    private final Map<String, CachedClient> clients = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        transport = new ApacheHttpTransport(ApacheHttpTransport.newDefaultHttpClientBuilder()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .evictIdleConnections(idleTimeoutSeconds, TimeUnit.SECONDS)
+                .build());
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        transport.shutdown();
+    }
+
+    public Drive forCurrentUser() throws IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            throw new IOException("Failed to create Google Drive client: no user logged in");
+        }
+        String principalName = authentication.getName();
+        Instant now = Instant.now();
+
+        CachedClient cached = clients.get(principalName);
+        if (cached != null) {
+            if (cached.validUntil().isAfter(now)) {
+                hits.increment();
+                return cached.drive();
+            }
+            clients.remove(principalName, cached);
+            expirations.increment();
+        }
+        misses.increment();
+
+        OAuth2AuthorizedClient client = authorizedClientService.loadAuthorizedClient("google", principalName);
+        if (client == null || client.getAccessToken() == null) {
+            throw new IOException("Failed to create Google Drive client: Google Drive connection not found. "
+                    + "Please logout and log in again with Google.");
+        }
+
+        Instant expiresAt = client.getAccessToken().getExpiresAt();
+        GoogleCredentials credentials = GoogleCredentials.create(new AccessToken(
+                client.getAccessToken().getTokenValue(), expiresAt != null ? Date.from(expiresAt) : null));
+        Drive drive = new Drive.Builder(transport, JSON_FACTORY, withRetries(new HttpCredentialsAdapter(credentials)))
+                .setApplicationName(APPLICATION_NAME)
+                .build();
+
+        // Tokens without an expiry are not cached: nothing would tell us when to let go of them
+        Instant validUntil = expiresAt != null ? expiresAt.minus(Duration.ofSeconds(expirySkewSeconds)) : now;
+        if (validUntil.isAfter(now)) {
+            if (clients.size() >= maxEntries) {
+                clients.values().removeIf(entry -> !entry.validUntil().isAfter(now));
+            }
+            if (clients.size() < maxEntries) {
+                clients.put(principalName, new CachedClient(drive, validUntil));
+            }
+        }
+        return drive;
+    }
+
+    /**
+     * Adds exponential backoff on 5xx responses and I/O errors for requests that are safe to resend:
+     * GET, DELETE and resumable upload chunks. For those chunks this is what lets MediaHttpUploader ask
+     * Drive how much arrived and resend only the interrupted chunk. A files().create or copy that
+     * failed after Drive acted on it would create a second file, so POST / PATCH are never retried.
+     */
+    private HttpRequestInitializer withRetries(HttpCredentialsAdapter credentials) {
+        return request -> {
+            credentials.initialize(request);
+            // Method and URL are set only after the initializer has run, so they are checked per failure.
+            // Replaces the adapter's 401 handler: these credentials cannot refresh, so a 401 must surface
+            // (GoogleDriveService then drops the cached client)
+            HttpUnsuccessfulResponseHandler onResponse = new HttpBackOffUnsuccessfulResponseHandler(backOff());
+            HttpIOExceptionHandler onIOException = new HttpBackOffIOExceptionHandler(backOff());
+            request.setUnsuccessfulResponseHandler((failed, response, supportsRetry) ->
+                    isIdempotent(failed) && onResponse.handleResponse(failed, response, supportsRetry));
+            request.setIOExceptionHandler((failed, supportsRetry) ->
+                    isIdempotent(failed) && onIOException.handleIOException(failed, supportsRetry));
+        };
+    }
+
+    private static boolean isIdempotent(HttpRequest request) {
+        String method = request.getRequestMethod();
+        if (HttpMethods.GET.equals(method) || HttpMethods.DELETE.equals(method)) return true;
+        // Chunks of a resumable upload go to the session URI; resending one overwrites the same byte range
+        return HttpMethods.PUT.equals(method) && request.getUrl().getFirst("upload_id") != null;
+    }
+
+    private ExponentialBackOff backOff() {
+        return new ExponentialBackOff.Builder()
+                .setInitialIntervalMillis(500)
+                .setMaxIntervalMillis(8_000)
+                .setMaxElapsedTimeMillis((int) retryMaxElapsedMs)
+                .build();
+    }
+
+    // Drive rejected the token (revoked, or replaced by a new login): rebuild on the next call
+    public void invalidateCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && clients.remove(authentication.getName()) != null) {
+            invalidations.increment();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long lookups = hits.sum() + misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cachedClients", clients.size());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) hits.sum() / lookups);
+        stats.put("expirations", expirations.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("maxConnections", maxConnections);
+        return stats;
+    }
+
+    private record CachedClient(Drive drive, Instant validUntil) {}
+}
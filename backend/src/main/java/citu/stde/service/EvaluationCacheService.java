@@ -0,0 +1,209 @@
+package citu.stde.service;
+
+import citu.stde.dto.EvaluationResponse;
+import citu.stde.entity.EvaluationCacheEntry;
+import citu.stde.repository.EvaluationCacheRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cross-user cache of AI evaluation results, keyed by document content hash and prompt version.
+ *
+ * Tier 1 is a bounded in-process LRU map with a TTL; tier 2 is the evaluation_cache table.
+ * The prompt version is derived from the scoring prompt and the model name, so editing either
+ * invalidates every cached result without a manual flush.
+ */
+@Service
+@RequiredArgsConstructor
+public class EvaluationCacheService {
+
+    private final EvaluationCacheRepository cacheRepository;
+
+    @Value("${spring.ai.openai.chat.options.model:gpt-4o-mini}")
+    private String model;
+
+    @Value("${app.evaluation.cache.memory-max-entries:500}")
+    private int memoryMaxEntries;
+
+    @Value("${app.evaluation.cache.memory-ttl-minutes:60}")
+    private long memoryTtlMinutes;
+
+    @Value("${app.evaluation.cache.db-ttl-days:30}")
+    private long dbTtlDays;
+
+    private String promptVersion;
+    private Map<String, MemoryEntry> memoryTier;
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder dbHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    // Hits found through the uploaded file's Drive md5, before any download
+    private final LongAdder fileHashHits = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        promptVersion = sha256(EvaluationPrompts.SCORING_SYSTEM_PROMPT + "|"
+                + EvaluationPrompts.CHUNK_SCORING_SYSTEM_PROMPT + "|" + model
+                + "|compaction-" + PromptCompactor.VERSION).substring(0, 16);
+
+        // Access-ordered LinkedHashMap gives us LRU; guarded by synchronized(memoryTier)
+        memoryTier = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MemoryEntry> eldest) {
+                if (size() > memoryMaxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Clears rows left behind by a previous prompt/model or older than the TTL
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void purgeStaleEntries() {
+        int removed = cacheRepository.deleteStaleEntries(promptVersion, Instant.now().minus(dbTtlDays, ChronoUnit.DAYS));
+        if (removed > 0) {
+            System.out.println("Evaluation cache: purged " + removed + " stale entries (prompt version " + promptVersion + ")");
+        }
+    }
+
+    public String getPromptVersion() {
+        return promptVersion;
+    }
+
+    public Optional<EvaluationResponse> lookup(String contentHash) {
+        if (contentHash == null) return Optional.empty();
+
+        String key = cacheKey(contentHash);
+        synchronized (memoryTier) {
+            MemoryEntry entry = memoryTier.get(key);
+            if (entry != null) {
+                if (entry.expiresAt.isAfter(Instant.now())) {
+                    memoryHits.increment();
+                    return Optional.of(entry.response);
+                }
+                memoryTier.remove(key);
+                expirations.increment();
+            }
+        }
+
+        Optional<EvaluationResponse> stored = cacheRepository.findByContentHashAndPromptVersion(contentHash, promptVersion)
+                .filter(row -> row.getCreatedAt().isAfter(Instant.now().minus(dbTtlDays, ChronoUnit.DAYS)))
+                .map(this::toResponse);
+
+        if (stored.isPresent()) {
+            dbHits.increment();
+            putInMemory(key, stored.get());
+        } else {
+            misses.increment();
+        }
+        return stored;
+    }
+
+    public void store(String contentHash, EvaluationResponse response) {
+        if (contentHash == null || response == null) return;
+
+        putInMemory(cacheKey(contentHash), response);
+        try {
+            if (cacheRepository.findByContentHashAndPromptVersion(contentHash, promptVersion).isEmpty()) {
+                cacheRepository.save(toEntry(contentHash, response));
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Another worker stored the same content first; its result is just as good
+        }
+    }
+
+    public void recordFileHashHit() {
+        fileHashHits.increment();
+    }
+
+    public Map<String, Object> getStats() {
+        long hits = memoryHits.sum() + dbHits.sum();
+        long lookups = hits + misses.sum();
+        int size;
+        synchronized (memoryTier) {
+            size = memoryTier.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("promptVersion", promptVersion);
+        stats.put("memoryHits", memoryHits.sum());
+        stats.put("dbHits", dbHits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) hits / lookups);
+        stats.put("fileHashHits", fileHashHits.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        stats.put("memoryEntries", size);
+        stats.put("memoryMaxEntries", memoryMaxEntries);
+        stats.put("dbEntries", cacheRepository.count());
+        return stats;
+    }
+
+    private void putInMemory(String key, EvaluationResponse response) {
+        synchronized (memoryTier) {
+            memoryTier.put(key, new MemoryEntry(response, Instant.now().plus(memoryTtlMinutes, ChronoUnit.MINUTES)));
+        }
+    }
+
+    private String cacheKey(String contentHash) {
+        return contentHash + ":" + promptVersion;
+    }
+
+    private EvaluationResponse toResponse(EvaluationCacheEntry row) {
+        return new EvaluationResponse(
+                row.getCompletenessScore(), row.getCompletenessFeedback(),
+                row.getClarityScore(), row.getClarityFeedback(),
+                row.getConsistencyScore(), row.getConsistencyFeedback(),
+                row.getVerificationScore(), row.getVerificationFeedback(),
+                row.getOverallScore(), row.getOverallFeedback());
+    }
+
+    private EvaluationCacheEntry toEntry(String contentHash, EvaluationResponse response) {
+        return EvaluationCacheEntry.builder()
+                .contentHash(contentHash)
+                .promptVersion(promptVersion)
+                .completenessScore(response.completenessScore())
+                .completenessFeedback(response.completenessFeedback())
+                .clarityScore(response.clarityScore())
+                .clarityFeedback(response.clarityFeedback())
+                .consistencyScore(response.consistencyScore())
+                .consistencyFeedback(response.consistencyFeedback())
+                .verificationScore(response.verificationScore())
+                .verificationFeedback(response.verificationFeedback())
+                .overallScore(response.overallScore())
+                .overallFeedback(response.overallFeedback())
+                .build();
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record MemoryEntry(EvaluationResponse response, Instant expiresAt) {}
+}
@@ -0,0 +1,35 @@
+package citu.stde.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * At most one evaluation per document at a time, whoever started it: a student's job
+ * ({@link EvaluationJobService}) or a teacher's bulk run ({@link ClassroomEvaluationBatchService}).
+ * Both take the claim before any Drive or model call and release it when they finish.
+ */
+@Service
+public class EvaluationClaims {
+
+    private final Map<UUID, Object> ownerByDocument = new ConcurrentHashMap<>();
+
+    /**
+     * Claims the document for {@code owner}. Returns null when the claim was taken, otherwise
+     * whoever already holds it (the caller must then not evaluate).
+     */
+    public Object claim(UUID documentId, Object owner) {
+        return ownerByDocument.putIfAbsent(documentId, owner);
+    }
+
+    // Only the holder's own claim is removed, never one taken by someone else since
+    public void release(UUID documentId, Object owner) {
+        ownerByDocument.remove(documentId, owner);
+    }
+
+    public int size() {
+        return ownerByDocument.size();
+    }
+}
@@ -0,0 +1,322 @@
+package citu.stde.service;
+
+import citu.stde.config.ConnectionPoolMetrics;
+import citu.stde.dto.EvaluationDTO;
+import citu.stde.dto.EvaluationJobDTO;
+import citu.stde.entity.DocumentStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs AI evaluations on a bounded worker pool instead of the Tomcat request thread.
+ * Clients get a job id back immediately and poll {@link #getJob(UUID, UUID)} for the result, or
+ * follow it as Server-Sent Events through {@link #subscribe(UUID, UUID)}.
+ */
+@Service
+@RequiredArgsConstructor
+public class EvaluationJobService {
+
+    private final EvaluationService evaluationService;
+    private final EvaluationClaims evaluationClaims;
+
+    @Value("${app.evaluation.worker-threads:4}")
+    private int workerThreads;
+
+    @Value("${app.evaluation.queue-capacity:100}")
+    private int queueCapacity;
+
+    // How long finished jobs stay pollable before they are purged
+    @Value("${app.evaluation.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    // An SSE stream left open longer than this is closed; the client can still poll the job
+    @Value("${app.evaluation.stream.timeout-ms:600000}")
+    private long streamTimeoutMs;
+
+    private final Map<UUID, EvaluationJob> jobs = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor workerPool;
+    private ExecutorService executor;
+
+    @PostConstruct
+    void startWorkers() {
+        AtomicInteger threadCount = new AtomicInteger();
+        workerPool = new ThreadPoolExecutor(
+                workerThreads, workerThreads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "evaluation-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        // Workers need the caller's SecurityContext: GoogleDriveService resolves the Drive token from it
+        executor = new DelegatingSecurityContextExecutorService(workerPool);
+    }
+
+    @PreDestroy
+    void stopWorkers() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues an evaluation and returns its job right away.
+     * A document that already has a running job returns that job instead of charging quota twice.
+     */
+    public EvaluationJobDTO submitEvaluation(UUID documentId, UUID userId) {
+        return submitEvaluation(documentId, userId, false);
+    }
+
+    /**
+     * @param streamScores the caller will follow the job's events, so scoring is streamed and
+     *                     criteria are published as they arrive
+     */
+    public EvaluationJobDTO submitEvaluation(UUID documentId, UUID userId, boolean streamScores) {
+        purgeFinishedJobs();
+
+        // The document is claimed before quota is charged, so concurrent submits cannot both run
+        EvaluationJob job = new EvaluationJob(UUID.randomUUID(), documentId, userId, streamScores);
+        Object holder = evaluationClaims.claim(documentId, job);
+        if (holder instanceof EvaluationJob running) {
+            // Only the owner gets past reserveEvaluation, so a running job always belongs to them
+            if (!running.userId.equals(userId)) {
+                throw new SecurityException("Unauthorized access to document");
+            }
+            return running.toDTO();
+        }
+        if (holder != null) {
+            // A teacher's bulk evaluation is scoring this document right now
+            throw new RuntimeException("TYPE:IN_PROGRESS|This document is already being evaluated. Please try again shortly.");
+        }
+
+        // Ownership and quota are checked on the request thread so errors come back immediately
+        try {
+            evaluationService.reserveEvaluation(documentId, userId);
+        } catch (RuntimeException e) {
+            evaluationClaims.release(documentId, job);
+            throw e;
+        }
+        jobs.put(job.jobId, job);
+
+        try {
+            executor.execute(() -> runJob(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.jobId);
+            evaluationClaims.release(documentId, job);
+            // Nothing ran: give back the quota slot reserveEvaluation took
+            evaluationService.cancelReservation(documentId, userId);
+            throw new RuntimeException("TYPE:QUEUE_FULL|The evaluation queue is full. Please try again in a minute.");
+        }
+
+        return job.toDTO();
+    }
+
+    public EvaluationJobDTO getJob(UUID jobId, UUID userId) {
+        EvaluationJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new IllegalArgumentException("Evaluation job not found");
+        }
+        if (!job.userId.equals(userId)) {
+            throw new SecurityException("Unauthorized access to evaluation job");
+        }
+        return job.toDTO();
+    }
+
+    /**
+     * Server-Sent Events for a job: {@code stage} (DOWNLOADING, EXTRACTING, VALIDATING, SCORING),
+     * {@code criterion} (criterion, score, feedback) as soon as each one is known, then {@code done}
+     * carrying the same body as {@link #getJob(UUID, UUID)}. Events already sent are replayed first.
+     */
+    public SseEmitter subscribe(UUID jobId, UUID userId) {
+        EvaluationJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new IllegalArgumentException("Evaluation job not found");
+        }
+        if (!job.userId.equals(userId)) {
+            throw new SecurityException("Unauthorized access to evaluation job");
+        }
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        job.attach(emitter);
+        return emitter;
+    }
+
+    // A stream whose submission was refused (quota, queue full, ...): a single FAILED done event
+    public SseEmitter rejectedStream(UUID documentId, String error) {
+        EvaluationJob job = new EvaluationJob(null, documentId, null, false);
+        job.error = error;
+        job.status = DocumentStatus.FAILED;
+        job.finishedAt = Instant.now();
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        job.attach(emitter);
+        return emitter;
+    }
+
+    public Map<String, Object> getQueueStats() {
+        return Map.of(
+            "workers", workerPool.getMaximumPoolSize(),
+            "activeWorkers", workerPool.getActiveCount(),
+            "queued", workerPool.getQueue().size(),
+            "queueCapacity", queueCapacity,
+            "trackedJobs", jobs.size()
+        );
+    }
+
+    private void runJob(EvaluationJob job) {
+        ConnectionPoolMetrics.bindEndpoint("evaluation-job");
+        try {
+            job.result = job.streamScores
+                    ? evaluationService.evaluateDocument(job.documentId, job.userId, job)
+                    : evaluationService.evaluateDocument(job.documentId, job.userId);
+            job.status = DocumentStatus.COMPLETED;
+        } catch (Exception e) {
+            // evaluateDocument has already flagged the document FAILED
+            job.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            job.status = DocumentStatus.FAILED;
+        } finally {
+            job.finishedAt = Instant.now();
+            evaluationClaims.release(job.documentId, job);
+            job.complete();
+            ConnectionPoolMetrics.clearEndpoint();
+        }
+    }
+
+    private void purgeFinishedJobs() {
+        Instant cutoff = Instant.now().minus(jobRetentionMinutes, ChronoUnit.MINUTES);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private static class EvaluationJob implements EvaluationProgressListener {
+        private final UUID jobId;
+        private final UUID documentId;
+        private final UUID userId;
+        private final boolean streamScores;
+        private final Instant submittedAt = Instant.now();
+
+        // Guarded by this: events so far (replayed to late subscribers) and open streams
+        private final List<JobEvent> events = new ArrayList<>();
+        private final List<SseEmitter> emitters = new ArrayList<>();
+
+        private volatile DocumentStatus status = DocumentStatus.PROCESSING;
+        private volatile EvaluationDTO result;
+        private volatile String error;
+        private volatile Instant finishedAt;
+
+        private EvaluationJob(UUID jobId, UUID documentId, UUID userId, boolean streamScores) {
+            this.jobId = jobId;
+            this.documentId = documentId;
+            this.userId = userId;
+            this.streamScores = streamScores;
+        }
+
+        @Override
+        public void stage(String stage) {
+            publish(new JobEvent("stage", Map.of("stage", stage)));
+        }
+
+        @Override
+        public void criterion(String criterion, Integer score, String feedback) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("criterion", criterion);
+            data.put("score", score);
+            data.put("feedback", feedback);
+            publish(new JobEvent("criterion", data));
+        }
+
+        private synchronized void attach(SseEmitter emitter) {
+            for (JobEvent event : events) {
+                if (!send(emitter, event)) return;
+            }
+            if (finishedAt != null) {
+                if (send(emitter, doneEvent())) emitter.complete();
+                return;
+            }
+            emitters.add(emitter);
+            emitter.onCompletion(() -> detach(emitter));
+            emitter.onTimeout(() -> detach(emitter));
+            emitter.onError(e -> detach(emitter));
+        }
+
+        private synchronized void detach(SseEmitter emitter) {
+            emitters.remove(emitter);
+        }
+
+        private synchronized void publish(JobEvent event) {
+            events.add(event);
+            emitters.removeIf(emitter -> !send(emitter, event));
+        }
+
+        // Sends done and closes every open stream
+        private synchronized void complete() {
+            JobEvent done = doneEvent();
+            // complete() may run the onCompletion callback (detach) right away
+            List<SseEmitter> open = new ArrayList<>(emitters);
+            emitters.clear();
+            for (SseEmitter emitter : open) {
+                if (send(emitter, done)) emitter.complete();
+            }
+        }
+
+        private JobEvent doneEvent() {
+            return new JobEvent("done", toDTO());
+        }
+
+        // False when the client has gone away; the evaluation itself carries on
+        private static boolean send(SseEmitter emitter, JobEvent event) {
+            try {
+                // Builders are single-use, so each send gets a fresh one
+                emitter.send(SseEmitter.event().name(event.name()).data(event.data()));
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                return false;
+            }
+        }
+
+        private EvaluationJobDTO toDTO() {
+            String errorType = null;
+            String errorMessage = error;
+            // Service errors use the "TYPE:XYZ|message" convention
+            if (errorMessage != null && errorMessage.startsWith("TYPE:") && errorMessage.contains("|")) {
+                errorType = errorMessage.substring(5, errorMessage.indexOf('|'));
+                errorMessage = errorMessage.substring(errorMessage.indexOf('|') + 1);
+            }
+            return EvaluationJobDTO.builder()
+                    .jobId(jobId)
+                    .documentId(documentId)
+                    .status(status)
+                    .result(result)
+                    .errorType(errorType)
+                    .error(errorMessage)
+                    .submittedAt(submittedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+
+    private record JobEvent(String name, Object data) {}
+}
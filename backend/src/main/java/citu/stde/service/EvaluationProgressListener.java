@@ -0,0 +1,33 @@
+package citu.stde.service;
+
+/**
+ * Receives progress from {@link EvaluationService} while an evaluation runs: pipeline stages, and
+ * each criterion as soon as its score and feedback have streamed in from the model.
+ * Called on the evaluation worker thread; implementations must not block for long.
+ */
+public interface EvaluationProgressListener {
+
+    String DOWNLOADING = "DOWNLOADING";
+    String EXTRACTING = "EXTRACTING";
+    String VALIDATING = "VALIDATING";
+    String SCORING = "SCORING";
+
+    // Polling clients: no stages, and scoring keeps the non-streamed (hedged) call
+    EvaluationProgressListener NONE = new EvaluationProgressListener() {
+        @Override
+        public boolean streamsScores() {
+            return false;
+        }
+    };
+
+    default void stage(String stage) {
+    }
+
+    default void criterion(String criterion, Integer score, String feedback) {
+    }
+
+    // True when someone is watching: the scoring call is then streamed so criteria arrive one by one
+    default boolean streamsScores() {
+        return true;
+    }
+}
@@ -0,0 +1,54 @@
+package citu.stde.service;
+
+/**
+ * System prompts sent to the model. Any edit here changes the evaluation cache's
+ * prompt version, so results produced by the old wording are no longer served.
+ */
+final class EvaluationPrompts {
+
+    static final String SCORING_SYSTEM_PROMPT = """
+        You are a strict QA Auditor. Evaluate the software test document on 4 criteria.
+        You MUST return a valid JSON object. Do not add markdown blocks.
+        
+        Use EXACTLY these keys:
+        {
+            "completenessScore": (Integer 0-100),
+            "completenessFeedback": (String),
+            "clarityScore": (Integer 0-100),
+            "clarityFeedback": (String),
+            "consistencyScore": (Integer 0-100),
+            "consistencyFeedback": (String),
+            "verificationScore": (Integer 0-100),
+            "verificationFeedback": (String),
+            "overallScore": (Integer 0-100),
+            "overallFeedback": (String)
+        }
+        """;
+
+    // Map step of ChunkedEvaluationService: scores one section of a long document
+    static final String CHUNK_SCORING_SYSTEM_PROMPT = """
+        You are a strict QA Auditor. You are given ONE section of a longer software test document.
+        Score only what this section contains; do not penalise it for content that belongs in other sections.
+        You MUST return a valid JSON object. Do not add markdown blocks.
+        
+        Use EXACTLY these keys:
+        {
+            "completenessScore": (Integer 0-100),
+            "completenessFeedback": (String),
+            "clarityScore": (Integer 0-100),
+            "clarityFeedback": (String),
+            "consistencyScore": (Integer 0-100),
+            "consistencyFeedback": (String),
+            "verificationScore": (Integer 0-100),
+            "verificationFeedback": (String),
+            "overallScore": (Integer 0-100),
+            "overallFeedback": (String)
+        }
+        """;
+
+    static final String VALIDATION_SYSTEM_PROMPT =
+        "Respond with ONLY \"YES\" if it is a Software Testing Document, or \"NO\".";
+
+    private EvaluationPrompts() {
+    }
+}
@@ -0,0 +1,193 @@
+package citu.stde.service;
+
+import citu.stde.dto.EvaluationQuotaWindow;
+import citu.stde.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hourly evaluation quota per user, kept in memory.
+ *
+ * Each user has a fixed one-hour window (count + start) swapped atomically with compare-and-set, so
+ * two tabs submitting at once can never both take the last slot and no users row is locked on the
+ * request path. The window is read from the users table the first time a user is seen and written
+ * back on a schedule (one UPDATE per changed user) so it survives a restart.
+ */
+@Service
+@RequiredArgsConstructor
+public class EvaluationQuotaService {
+
+    private static final Duration WINDOW = Duration.ofHours(1);
+    // Put into a reference before it is evicted; whoever sees it looks the user up again
+    private static final QuotaWindow RETIRED = new QuotaWindow(Instant.EPOCH, 0);
+
+    private final UserRepository userRepository;
+
+    @Value("${app.evaluation.quota.hourly-limit:30}")
+    private int hourlyLimit;
+
+    private final Map<UUID, AtomicReference<QuotaWindow>> windows = new ConcurrentHashMap<>();
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder granted = new LongAdder();
+    private final LongAdder denied = new LongAdder();
+    private final LongAdder casRetries = new LongAdder();
+
+    /**
+     * Takes one evaluation from the user's current window.
+     *
+     * @throws RuntimeException TYPE:QUOTA_EXCEEDED when the window is used up
+     */
+    public void acquire(UUID userId) {
+        AtomicReference<QuotaWindow> ref = windowOf(userId);
+        while (true) {
+            Instant now = Instant.now();
+            QuotaWindow current = ref.get();
+            if (current == RETIRED) {
+                ref = windowOf(userId);
+                continue;
+            }
+            QuotaWindow active = current.expiredAt(now) ? new QuotaWindow(now, 0) : current;
+
+            if (active.count() >= hourlyLimit) {
+                denied.increment();
+                long minutesLeft = Duration.between(now, active.resetsAt()).toMinutes();
+                throw new RuntimeException("TYPE:QUOTA_EXCEEDED|You have used all " + hourlyLimit
+                        + " analysis attempts for this hour. Resets in " + minutesLeft + " minutes.");
+            }
+            if (ref.compareAndSet(current, new QuotaWindow(active.start(), active.count() + 1))) {
+                dirty.add(userId);
+                granted.increment();
+                return;
+            }
+            casRetries.increment();
+        }
+    }
+
+    /**
+     * Gives back one evaluation taken by {@link #acquire} that never ran. A no-op once the window it
+     * was taken from has expired.
+     */
+    public void release(UUID userId) {
+        AtomicReference<QuotaWindow> ref = windows.get(userId);
+        if (ref == null) return;
+        while (true) {
+            QuotaWindow current = ref.get();
+            if (current == RETIRED || current.expiredAt(Instant.now()) || current.count() == 0) return;
+            if (ref.compareAndSet(current, new QuotaWindow(current.start(), current.count() - 1))) {
+                dirty.add(userId);
+                return;
+            }
+            casRetries.increment();
+        }
+    }
+
+    // Same shape the frontend has always received from /api/evaluations/usage
+    public Map<String, Object> getUsage(UUID userId) {
+        Instant now = Instant.now();
+        QuotaWindow window = windowOf(userId).get();
+        if (window == RETIRED) window = windowOf(userId).get();
+        int used = window.expiredAt(now) ? 0 : window.count();
+        long secondsRemaining = window.expiredAt(now)
+                ? WINDOW.toSeconds()
+                : Math.max(0, Duration.between(now, window.resetsAt()).toSeconds());
+
+        return Map.of(
+            "used", used,
+            "limit", hourlyLimit,
+            "remaining", Math.max(0, hourlyLimit - used),
+            "resetInSeconds", secondsRemaining
+        );
+    }
+
+    @Scheduled(fixedDelayString = "${app.evaluation.quota.flush-interval-ms:5000}")
+    public void flush() {
+        Instant now = Instant.now();
+        for (UUID userId : new ArrayList<>(dirty)) {
+            dirty.remove(userId);
+            AtomicReference<QuotaWindow> ref = windows.get(userId);
+            if (ref == null) continue;
+            QuotaWindow window = ref.get();
+            if (window == RETIRED) continue;
+            try {
+                userRepository.updateEvaluationQuota(userId, window.count(), window.start());
+            } catch (RuntimeException e) {
+                // Try again next round; memory stays authoritative meanwhile
+                dirty.add(userId);
+                System.err.println("Warning: Failed to persist evaluation quota for " + userId + ": " + e.getMessage());
+            }
+        }
+        // Expired, already persisted windows are dropped and reloaded on demand. Retiring the reference
+        // first makes a concurrent acquire() retry on a fresh one instead of counting on the evicted one.
+        for (Map.Entry<UUID, AtomicReference<QuotaWindow>> entry : windows.entrySet()) {
+            AtomicReference<QuotaWindow> ref = entry.getValue();
+            QuotaWindow window = ref.get();
+            if (window != RETIRED && window.expiredAt(now) && !dirty.contains(entry.getKey())
+                    && ref.compareAndSet(window, RETIRED)) {
+                windows.remove(entry.getKey(), ref);
+            }
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            System.err.println("Warning: Failed to flush evaluation quotas on shutdown: " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hourlyLimit", hourlyLimit);
+        stats.put("trackedUsers", windows.size());
+        stats.put("pendingWrites", dirty.size());
+        stats.put("granted", granted.sum());
+        stats.put("denied", denied.sum());
+        stats.put("casRetries", casRetries.sum());
+        return stats;
+    }
+
+    private AtomicReference<QuotaWindow> windowOf(UUID userId) {
+        AtomicReference<QuotaWindow> ref = windows.get(userId);
+        if (ref != null && ref.get() != RETIRED) return ref;
+        if (ref != null) windows.remove(userId, ref);
+
+        // Loaded outside computeIfAbsent so the map is never blocked on the database
+        QuotaWindow stored = userRepository.findEvaluationQuotaWindow(userId)
+                .map(QuotaWindow::of)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        return windows.computeIfAbsent(userId, id -> new AtomicReference<>(stored));
+    }
+
+    private record QuotaWindow(Instant start, int count) {
+
+        static QuotaWindow of(EvaluationQuotaWindow row) {
+            return new QuotaWindow(row.getEvaluationWindowStart(),
+                    row.getEvaluationCount() == null ? 0 : row.getEvaluationCount());
+        }
+
+        boolean expiredAt(Instant now) {
+            return start == null || !resetsAt().isAfter(now);
+        }
+
+        Instant resetsAt() {
+            return start.plus(WINDOW);
+        }
+    }
+}
@@ -1,130 +1,247 @@
 package citu.stde.service;
 
+import citu.stde.dto.CursorPage;
 import citu.stde.dto.EvaluationDTO;
+import citu.stde.dto.EvaluationListing;
+import citu.stde.dto.PageCursor;
 import citu.stde.dto.EvaluationResponse;
+import citu.stde.config.ConnectionPoolMetrics;
 import citu.stde.entity.Document;
 import citu.stde.entity.DocumentStatus;
 import citu.stde.entity.Evaluation;
-import citu.stde.entity.User;
 import citu.stde.repository.DocumentRepository;
 import citu.stde.repository.EvaluationRepository;
-import citu.stde.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
-import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
-import org.apache.poi.xwpf.usermodel.XWPFDocument;
-import org.springframework.ai.chat.client.ChatClient;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class EvaluationService {
 
-    private final ChatClient.Builder chatClientBuilder;
+    private final LlmGateway llmGateway;
     private final DocumentRepository documentRepository;
     private final EvaluationRepository evaluationRepository;
     private final GoogleDriveService googleDriveService;
     private final ClassroomService classroomService; 
-    private final UserRepository userRepository;
     private final AdminService adminService; 
+    private final TransactionTemplate transactionTemplate;
+    private final ConnectionPoolMetrics connectionPoolMetrics;
+    private final EvaluationCacheService evaluationCacheService;
+    private final DocumentTextExtractor documentTextExtractor;
+    private final ExtractedTextStore extractedTextStore;
+    private final ChunkedEvaluationService chunkedEvaluationService;
+    private final TestDocumentClassifier testDocumentClassifier;
+    private final SpeculativeEvaluationService speculativeEvaluationService;
+    private final HedgedRequestService hedgedRequestService;
+    private final PromptCompactor promptCompactor;
+    private final EvaluationQuotaService evaluationQuotaService;
 
     // ==========================================
     // DEV SETTINGS (Toggle here for testing)
     // ==========================================
     private final boolean ENABLE_TRUNCATION = false; // Set 'true' to save tokens
-    private static final int HOURLY_LIMIT = 30;      // Dev limit increased to 30
+    private static final int MAX_PROMPT_CHARS = 15000; // Kept when truncation is on
     // ==========================================
 
+    // Hard ceiling on kept text when truncation is off (~250k tokens, far past what chunking needs);
+    // a pathological file is cut here instead of being built into one huge String
+    @Value("${app.evaluation.extraction.max-chars:1000000}")
+    private int maxExtractedChars;
+
+    private static final String INVALID_DOCUMENT_ERROR = "TYPE:INVALID_DOCUMENT|The uploaded document is not a Software Testing Document.";
+
+    // Called before an evaluation job is queued: checks ownership, charges quota and flags the document
     @Transactional
-    public EvaluationDTO evaluateDocument(UUID documentId, UUID userId) {
+    public void reserveEvaluation(UUID documentId, UUID userId) {
         Document doc = documentRepository.findById(documentId)
                 .orElseThrow(() -> new IllegalArgumentException("Document not found"));
-        
+
         if (!doc.getUser().getId().equals(userId)) {
             throw new SecurityException("Unauthorized access to document");
         }
 
-        checkAndIncrementUsage(userId);
+        evaluationQuotaService.acquire(userId);
 
         doc.setStatus(DocumentStatus.PROCESSING);
         documentRepository.save(doc);
+    }
 
-        try {
-            String fileContent = fetchFileContentFromDrive(doc);
-            String currentHash = calculateHash(fileContent);
-            doc.setContentHash(currentHash);
+    // A reserved evaluation that never started: the document is flagged FAILED and the quota slot returned
+    public void cancelReservation(UUID documentId, UUID userId) {
+        markEvaluationFailed(documentId);
+        evaluationQuotaService.release(userId);
+    }
+
+    @Transactional
+    public void markEvaluationFailed(UUID documentId) {
+        documentRepository.findById(documentId).ifPresent(doc -> {
+            doc.setStatus(DocumentStatus.FAILED);
             documentRepository.save(doc);
+        });
+    }
+
+    // Quota is charged by reserveEvaluation(); this runs on an EvaluationJobService worker.
+    // Not @Transactional on purpose: the Drive download and both AI calls take tens of seconds,
+    // so each DB step below runs in its own short transaction and no pooled connection is held
+    // while we wait on remote I/O.
+    public EvaluationDTO evaluateDocument(UUID documentId, UUID userId) {
+        return runEvaluation(documentId, userId, false, EvaluationProgressListener.NONE);
+    }
 
-            Optional<Evaluation> cachedEval = evaluationRepository
-                .findTopByUserIdAndDocument_ContentHashOrderByCreatedAtDesc(userId, currentHash);
+    // Streaming clients: stages and per-criterion results are reported as they happen
+    public EvaluationDTO evaluateDocument(UUID documentId, UUID userId, EvaluationProgressListener listener) {
+        return runEvaluation(documentId, userId, false, listener);
+    }
+
+    // Same pipeline for a teacher's bulk run over a classroom: the requester must own the document's
+    // classroom, and the evaluation is still stored under the student who submitted it.
+    public EvaluationDTO evaluateClassroomSubmission(UUID documentId, UUID teacherId) {
+        return runEvaluation(documentId, teacherId, true, EvaluationProgressListener.NONE);
+    }
 
-            if (cachedEval.isPresent()) {
-                System.out.println("Duplicate content detected. Returning cached result.");
-                return copyCachedEvaluation(cachedEval.get(), doc, userId);
+    /**
+     * Bulk runs only: applies the cached result for the hash recorded at the document's last
+     * evaluation, without touching Drive or the model. Empty if there is no hash or no cache entry.
+     */
+    @Transactional
+    public Optional<EvaluationDTO> applyCachedEvaluation(UUID documentId) {
+        Document doc = documentRepository.findById(documentId)
+                .orElseThrow(() -> new IllegalArgumentException("Document not found"));
+        if (doc.getContentHash() == null) {
+            return Optional.empty();
+        }
+        return evaluationCacheService.lookup(doc.getContentHash())
+                .map(cached -> copyCachedEvaluation(cached, doc, doc.getUser().getId()));
+    }
+
+    private EvaluationDTO runEvaluation(UUID documentId, UUID userId, boolean asClassroomTeacher,
+                                        EvaluationProgressListener listener) {
+        Document doc = transactionTemplate.execute(status -> startEvaluation(documentId, userId, asClassroomTeacher));
+        UUID ownerId = doc.getUser().getId();
+
+        try {
+            String driveFileId = doc.getDriveFileId();
+            if (driveFileId == null || driveFileId.isEmpty()) throw new IllegalArgumentException("Document is missing Google Drive File ID");
+            connectionPoolMetrics.checkNoConnectionHeld("drive-download");
+            // Metadata only; the file may have been edited in Drive since it was uploaded
+            String revision = googleDriveService.getFileRevision(driveFileId);
+
+            // Bytes identical to a document evaluated before: the result cache can answer without a download
+            Optional<EvaluationDTO> byFileHash = cachedByFileHash(doc, ownerId, revision);
+            if (byFileHash.isPresent()) {
+                return byFileHash.get();
             }
 
-            String safeContent = truncateContent(fileContent);
-            if (!isValidSoftwareTestingDocument(safeContent)) {
-                throw new IllegalArgumentException("TYPE:INVALID_DOCUMENT|The uploaded document is not a Software Testing Document.");
+            listener.stage(EvaluationProgressListener.DOWNLOADING);
+            DocumentTextExtractor.ExtractedText extracted = fetchFileContentFromDrive(doc, revision, listener);
+            String currentHash = extracted.contentHash();
+
+            // Cross-user cache: identical content scored under the current prompt is never re-sent to the model
+            Optional<EvaluationResponse> cachedResponse = evaluationCacheService.lookup(currentHash);
+
+            EvaluationDTO cachedResult = transactionTemplate.execute(status -> {
+                doc.setContentHash(currentHash);
+                documentRepository.save(doc);
+
+                return cachedResponse
+                    .map(cached -> {
+                        System.out.println("Duplicate content detected. Returning cached result.");
+                        return copyCachedEvaluation(cached, doc, ownerId);
+                    })
+                    .orElse(null);
+            });
+            if (cachedResult != null) {
+                return cachedResult;
             }
 
-            Optional<Evaluation> existingEval = evaluationRepository.findByDocumentId(documentId);
-            if (existingEval.isPresent()) {
-                evaluationRepository.delete(existingEval.get());
-                evaluationRepository.flush();
+            // Headers, footers, page numbers and layout padding cost tokens but carry nothing to score
+            // Savings are counted in PromptCompactor.getStats (/api/admin/compaction)
+            PromptCompactor.Result compacted = promptCompactor.compact(extracted.content());
+            String safeContent = compacted.text();
+            boolean chunked = chunkedEvaluationService.shouldChunk(safeContent);
+            // Long documents: the YES/NO gate only needs the opening section, not the whole text
+            String validationContent = chunked ? chunkedEvaluationService.split(safeContent).get(0) : safeContent;
+            LlmCallContext llmContext = new LlmCallContext("evaluate", userId,
+                    doc.getClassroom() != null ? doc.getClassroom().getId() : null);
+
+            // Local pre-screen first; only its ambiguous band costs an LLM validation round trip,
+            // and that one runs alongside a speculative scoring call
+            listener.stage(EvaluationProgressListener.VALIDATING);
+            TestDocumentClassifier.Verdict verdict = testDocumentClassifier.classify(safeContent);
+            if (verdict == TestDocumentClassifier.Verdict.REJECT) {
+                throw new IllegalArgumentException(INVALID_DOCUMENT_ERROR);
             }
 
-            ChatClient chatClient = chatClientBuilder.build();
-            String systemPrompt = """
-                You are a strict QA Auditor. Evaluate the software test document on 4 criteria.
-                You MUST return a valid JSON object. Do not add markdown blocks.
-                
-                Use EXACTLY these keys:
-                {
-                    "completenessScore": (Integer 0-100),
-                    "completenessFeedback": (String),
-                    "clarityScore": (Integer 0-100),
-                    "clarityFeedback": (String),
-                    "consistencyScore": (Integer 0-100),
-                    "consistencyFeedback": (String),
-                    "verificationScore": (Integer 0-100),
-                    "verificationFeedback": (String),
-                    "overallScore": (Integer 0-100),
-                    "overallFeedback": (String)
+            connectionPoolMetrics.checkNoConnectionHeld("openai-scoring");
+            StreamingScoreParser scoreParser = new StreamingScoreParser(listener);
+            boolean speculative = verdict != TestDocumentClassifier.Verdict.ACCEPT;
+            Supplier<EvaluationResponse> scoring = () -> {
+                // Speculative scoring runs before validation has passed; the listener hears of it
+                // only afterwards, so a rejected document never shows a score
+                if (!speculative) listener.stage(EvaluationProgressListener.SCORING);
+                if (chunked) {
+                    return chunkedEvaluationService.evaluate(safeContent, llmContext);
                 }
-                """;
-
-            EvaluationResponse aiResponse = chatClient.prompt()
-                    .system(systemPrompt)
-                    .user(u -> u.text("Document Content:\n{content}").param("content", safeContent))
-                    .call()
-                    .entity(EvaluationResponse.class);
+                // A watched evaluation streams so criteria show up one by one; a stream cannot be
+                // hedged, so unwatched and speculative ones keep the hedged call
+                if (listener.streamsScores() && !speculative) {
+                    return llmGateway.streamEntity(llmContext,
+                            EvaluationPrompts.SCORING_SYSTEM_PROMPT,
+                            "Document Content:\n{content}",
+                            Map.of("content", safeContent),
+                            EvaluationResponse.class,
+                            scoreParser::accept);
+                }
+                return hedgedRequestService.call(() -> llmGateway.callEntity(llmContext,
+                                EvaluationPrompts.SCORING_SYSTEM_PROMPT,
+                                "Document Content:\n{content}",
+                                Map.of("content", safeContent),
+                                EvaluationResponse.class),
+                        EvaluationService::hasScores);
+            };
+
+            EvaluationResponse aiResponse;
+            if (verdict == TestDocumentClassifier.Verdict.ACCEPT) {
+                aiResponse = scoring.get();
+            } else {
+                Supplier<Boolean> validation = () -> {
+                    boolean valid = isValidSoftwareTestingDocument(validationContent, llmContext.withEndpoint("validate"));
+                    testDocumentClassifier.recordFallback(valid);
+                    return valid;
+                };
+                aiResponse = speculativeEvaluationService.validateAndScore(validation, scoring)
+                        .orElseThrow(() -> new IllegalArgumentException(INVALID_DOCUMENT_ERROR));
+                listener.stage(EvaluationProgressListener.SCORING);
+            }
 
-            if (aiResponse.completenessScore() == null) {
+            if (!hasScores(aiResponse)) {
                 throw new RuntimeException("AI returned null scores.");
             }
+            scoreParser.finish(aiResponse);
+            evaluationCacheService.store(currentHash, aiResponse);
 
-            Evaluation evaluation = mapToEntity(aiResponse, doc, userId);
-            Evaluation savedEval = evaluationRepository.save(evaluation);
-
-            doc.setStatus(DocumentStatus.COMPLETED);
-            documentRepository.save(doc);
+            Evaluation savedEval = transactionTemplate.execute(status -> {
+                Evaluation saved = replaceEvaluation(documentId, mapToEntity(aiResponse, doc, ownerId));
+                doc.setStatus(DocumentStatus.COMPLETED);
+                documentRepository.save(doc);
+                return saved;
+            });
 
             // Record evaluation success
             adminService.logActivity("EVALUATE", doc.getUser().getEmail(), "Evaluated document: " + doc.getFilename());
@@ -132,14 +249,14 @@ public class EvaluationService {
             return mapToDTO(savedEval, doc.getFilename());
 
         } catch (Exception e) {
-            doc.setStatus(DocumentStatus.FAILED);
-            documentRepository.save(doc);
+            markEvaluationFailed(documentId);
             
-            String errorMsg = e.getMessage().toLowerCase();
+            String errorMsg = e.getMessage() == null ? "" : e.getMessage().toLowerCase();
             if (errorMsg.contains("429") || errorMsg.contains("rate limit")) {
-                throw new RuntimeException("TYPE:RATE_LIMIT|AI is busy. Please wait 30 seconds.");
+                long waitSeconds = LlmGateway.retryAfterSeconds(e.getMessage()).orElse(30L);
+                throw new RuntimeException("TYPE:RATE_LIMIT|AI is busy. Please wait " + waitSeconds + " seconds.");
             }
-            if (e.getMessage().startsWith("TYPE:")) {
+            if (e.getMessage() != null && e.getMessage().startsWith("TYPE:")) {
                 throw new RuntimeException(e.getMessage());
             }
             
@@ -149,88 +266,86 @@ public class EvaluationService {
         }
     }
 
-    private void checkAndIncrementUsage(UUID userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        Instant now = Instant.now();
-        Instant windowStart = user.getEvaluationWindowStart();
-
-        // Null Safety: Treat null count as 0
-        int currentCount = user.getEvaluationCount() == null ? 0 : user.getEvaluationCount();
+    // First short transaction: ownership check and PROCESSING flag. The user is initialised here
+    // so the detached document can still be read after the transaction ends.
+    private Document startEvaluation(UUID documentId, UUID userId, boolean asClassroomTeacher) {
+        Document doc = documentRepository.findById(documentId)
+                .orElseThrow(() -> new IllegalArgumentException("Document not found"));
 
-        if (windowStart == null || windowStart.plus(1, ChronoUnit.HOURS).isBefore(now)) {
-            user.setEvaluationWindowStart(now);
-            user.setEvaluationCount(0);
-            windowStart = now;
-            currentCount = 0;
+        if (asClassroomTeacher) {
+            if (doc.getClassroom() == null) throw new SecurityException("Document is not linked to any class.");
+            classroomService.verifyClassroomOwnership(doc.getClassroom().getId(), userId);
+        } else if (!doc.getUser().getId().equals(userId)) {
+            throw new SecurityException("Unauthorized access to document");
         }
+        Hibernate.initialize(doc.getUser());
 
-        if (currentCount >= HOURLY_LIMIT) {
-            long minutesLeft = ChronoUnit.MINUTES.between(now, windowStart.plus(1, ChronoUnit.HOURS));
-            throw new RuntimeException("TYPE:QUOTA_EXCEEDED|You have used all " + HOURLY_LIMIT + " analysis attempts for this hour. Resets in " + minutesLeft + " minutes.");
-        }
+        doc.setStatus(DocumentStatus.PROCESSING);
+        return documentRepository.save(doc);
+    }
 
-        user.setEvaluationCount(currentCount + 1);
-        userRepository.save(user);
+    // A document has at most one evaluation (unique document_id), so drop the old one first. The
+    // document row lock makes a concurrent replacement wait and then delete this insert, instead of
+    // both seeing no row and one failing on the constraint. Caller holds the transaction.
+    private Evaluation replaceEvaluation(UUID documentId, Evaluation evaluation) {
+        documentRepository.lockById(documentId);
+        evaluationRepository.deleteByDocumentId(documentId);
+        return evaluationRepository.save(evaluation);
     }
 
+    // Served from EvaluationQuotaService's in-memory window; no users row is read per request
     public Map<String, Object> getUsageStats(UUID userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        Instant now = Instant.now();
-        Instant windowStart = user.getEvaluationWindowStart();
-        
-        int currentCount = user.getEvaluationCount() == null ? 0 : user.getEvaluationCount();
-
-        if (windowStart == null || windowStart.plus(1, ChronoUnit.HOURS).isBefore(now)) {
-            currentCount = 0;
-            windowStart = now; 
-        }
-
-        long secondsRemaining = 0;
-        if (windowStart != null) {
-            Instant resetTime = windowStart.plus(1, ChronoUnit.HOURS);
-            secondsRemaining = Math.max(0, ChronoUnit.SECONDS.between(now, resetTime));
-        }
-
-        // Returns the HOURLY_LIMIT constant, so frontend updates automatically
-        return Map.of(
-            "used", currentCount,
-            "limit", HOURLY_LIMIT, 
-            "remaining", Math.max(0, HOURLY_LIMIT - currentCount),
-            "resetInSeconds", secondsRemaining
-        );
+        return evaluationQuotaService.getUsage(userId);
     }
 
-    private String calculateHash(String content) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(content.getBytes(StandardCharsets.UTF_8));
-            return HexFormat.of().formatHex(hash);
-        } catch (Exception e) {
-            return null;
+    /**
+     * fileHash is the md5 revision Drive reported at upload. A student may since have edited the file in
+     * Drive, so it is re-pointed at the current revision first (cleared for Google-native files, which
+     * have no checksum); a stale fileHash would return the old file's score.
+     */
+    private Optional<EvaluationDTO> cachedByFileHash(Document doc, UUID ownerId, String revision) {
+        String current = revision != null && revision.startsWith("md5:") ? revision : null;
+        if (!Objects.equals(current, doc.getFileHash())) {
+            doc.setFileHash(current);
+            // Saved together with contentHash once the text is extracted, or with the cached result below
+            doc.setContentHash(null);
         }
+        if (doc.getFileHash() == null) return Optional.empty();
+        Optional<String> contentHash = documentRepository.findContentHashByFileHash(doc.getFileHash());
+        Optional<EvaluationResponse> cached = contentHash.flatMap(evaluationCacheService::lookup);
+        if (cached.isEmpty()) return Optional.empty();
+
+        evaluationCacheService.recordFileHashHit();
+        return Optional.ofNullable(transactionTemplate.execute(status -> {
+            doc.setContentHash(contentHash.get());
+            return copyCachedEvaluation(cached.get(), doc, ownerId);
+        }));
     }
 
-    private EvaluationDTO copyCachedEvaluation(Evaluation cached, Document currentDoc, UUID userId) {
+    private EvaluationDTO copyCachedEvaluation(EvaluationResponse cached, Document currentDoc, UUID userId) {
+        // The cache is shared across users: only mention it when the earlier submission was this user's own
+        boolean ownResubmission = currentDoc.getContentHash() != null
+                && evaluationRepository.existsByUserIdAndContentHash(userId, currentDoc.getContentHash());
+        String overallFeedback = ownResubmission
+                ? cached.overallFeedback() + " (Note: Result retrieved from cache as content is identical to previous submission.)"
+                : cached.overallFeedback();
+
         Evaluation newEval = Evaluation.builder()
                 .document(currentDoc)
                 .userId(userId)
-                .completenessScore(cached.getCompletenessScore())
-                .completenessFeedback(cached.getCompletenessFeedback())
-                .clarityScore(cached.getClarityScore())
-                .clarityFeedback(cached.getClarityFeedback())
-                .consistencyScore(cached.getConsistencyScore())
-                .consistencyFeedback(cached.getConsistencyFeedback())
-                .verificationScore(cached.getVerificationScore())
-                .verificationFeedback(cached.getVerificationFeedback())
-                .overallScore(cached.getOverallScore())
-                .overallFeedback(cached.getOverallFeedback() + " (Note: Result retrieved from cache as content is identical to previous submission.)")
+                .completenessScore(cached.completenessScore())
+                .completenessFeedback(cached.completenessFeedback())
+                .clarityScore(cached.clarityScore())
+                .clarityFeedback(cached.clarityFeedback())
+                .consistencyScore(cached.consistencyScore())
+                .consistencyFeedback(cached.consistencyFeedback())
+                .verificationScore(cached.verificationScore())
+                .verificationFeedback(cached.verificationFeedback())
+                .overallScore(cached.overallScore())
+                .overallFeedback(overallFeedback)
                 .build();
 
-        Evaluation saved = evaluationRepository.save(newEval);
+        Evaluation saved = replaceEvaluation(currentDoc.getId(), newEval);
         currentDoc.setStatus(DocumentStatus.COMPLETED);
         documentRepository.save(currentDoc);
         
@@ -277,47 +392,58 @@ public class EvaluationService {
         return mapToDTO(eval, doc.getFilename());
     }
     
-    private String fetchFileContentFromDrive(Document doc) throws IOException {
+    // Streams the Drive download straight into the extractor; the hash covers the full text
+    // even though only the first MAX_PROMPT_CHARS (truncation on) or max-chars (off) are kept.
+    // Unchanged files (same Drive revision) are served from the local ExtractedTextStore.
+    private DocumentTextExtractor.ExtractedText fetchFileContentFromDrive(Document doc, String revision,
+                                                                          EvaluationProgressListener listener) throws IOException {
         String driveFileId = doc.getDriveFileId();
-        if (driveFileId == null || driveFileId.isEmpty()) throw new IllegalArgumentException("Document is missing Google Drive File ID");
-        try (InputStream inputStream = googleDriveService.downloadFile(driveFileId)) {
-            String contentType = doc.getFileType();
-            if ("application/pdf".equals(contentType)) return extractTextFromPDF(inputStream);
-            else if ("application/vnd.openxmlformats-officedocument.wordprocessingml.document".equals(contentType)) return extractTextFromDOCX(inputStream);
-            else return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        int maxChars = ENABLE_TRUNCATION ? MAX_PROMPT_CHARS : maxExtractedChars;
+
+        Optional<DocumentTextExtractor.ExtractedText> stored = extractedTextStore.get(driveFileId, revision, maxChars);
+        if (stored.isPresent()) {
+            return stored.get();
         }
-    }
 
-    private String extractTextFromPDF(InputStream inputStream) throws IOException {
-        try (PDDocument document = PDDocument.load(inputStream)) { return new PDFTextStripper().getText(document); }
+        try (InputStream inputStream = googleDriveService.downloadFile(driveFileId, revision)) {
+            listener.stage(EvaluationProgressListener.EXTRACTING);
+            DocumentTextExtractor.ExtractedText extracted = documentTextExtractor.extract(inputStream, doc.getFileType(), maxChars);
+            extractedTextStore.put(driveFileId, revision, maxChars, extracted);
+            return extracted;
+        }
     }
 
-    private String extractTextFromDOCX(InputStream inputStream) throws IOException {
-        try (XWPFDocument document = new XWPFDocument(inputStream)) { return new XWPFWordExtractor(document).getText(); }
+    static boolean hasScores(EvaluationResponse response) {
+        return response != null && response.completenessScore() != null;
     }
 
-    private boolean isValidSoftwareTestingDocument(String content) {
+    private boolean isValidSoftwareTestingDocument(String content, LlmCallContext llmContext) {
         try {
-            ChatClient chatClient = chatClientBuilder.build();
-            String validationPrompt = "Respond with ONLY \"YES\" if it is a Software Testing Document, or \"NO\".";
-            String aiResponse = chatClient.prompt().system(validationPrompt).user(u -> u.text(content)).call().content();
+            String aiResponse = llmGateway.callContent(llmContext, EvaluationPrompts.VALIDATION_SYSTEM_PROMPT, content, Map.of());
             return aiResponse != null && aiResponse.trim().equalsIgnoreCase("YES");
-        } catch (Exception e) { return true; }
-    }
-
-    private String truncateContent(String content) {
-        if (!ENABLE_TRUNCATION || content == null) return content;
-        return content.length() > 15000 ? content.substring(0, 15000) : content;
+        } catch (Exception e) {
+            // Rate limit / provider outage: scoring would fail the same way, so surface it now.
+            // Anything else (odd answer, bad request) keeps the old fail-open behaviour.
+            if (e.getMessage() != null && e.getMessage().startsWith("TYPE:")) throw e;
+            return true;
+        }
     }
 
-    public List<EvaluationDTO> getUserEvaluations(UUID userId) {
-        return evaluationRepository.findByUserId(userId).stream().map(eval -> mapToDTO(eval, eval.getDocument().getFilename())).collect(Collectors.toList());
+    public CursorPage<EvaluationDTO> getUserEvaluations(UUID userId, String cursor, Integer limit) {
+        PageCursor after = PageCursor.decode(cursor);
+        int size = PageCursor.pageSize(limit);
+        return CursorPage.of(evaluationRepository.findListingByUserId(userId, after.timestamp(), after.id(), Limit.of(size + 1)),
+                size, this::mapToDTO, row -> new PageCursor(row.getCreatedAt(), row.getId()));
     }
 
     private Evaluation mapToEntity(EvaluationResponse response, Document doc, UUID userId) {
         return Evaluation.builder().document(doc).userId(userId).completenessScore(response.completenessScore()).completenessFeedback(response.completenessFeedback()).clarityScore(response.clarityScore()).clarityFeedback(response.clarityFeedback()).consistencyScore(response.consistencyScore()).consistencyFeedback(response.consistencyFeedback()).verificationScore(response.verificationScore()).verificationFeedback(response.verificationFeedback()).overallScore(response.overallScore()).overallFeedback(response.overallFeedback()).build();
     }
 
+    private EvaluationDTO mapToDTO(EvaluationListing row) {
+        return EvaluationDTO.builder().id(row.getId()).documentId(row.getDocumentId()).filename(row.getFilename()).completenessScore(row.getCompletenessScore()).completenessFeedback(row.getCompletenessFeedback()).clarityScore(row.getClarityScore()).clarityFeedback(row.getClarityFeedback()).consistencyScore(row.getConsistencyScore()).consistencyFeedback(row.getConsistencyFeedback()).verificationScore(row.getVerificationScore()).verificationFeedback(row.getVerificationFeedback()).overallScore(row.getOverallScore()).overallFeedback(row.getOverallFeedback()).createdAt(row.getCreatedAt()).build();
+    }
+
     private EvaluationDTO mapToDTO(Evaluation eval, String filename) {
         return EvaluationDTO.builder().id(eval.getId()).documentId(eval.getDocument().getId()).filename(filename).completenessScore(eval.getCompletenessScore()).completenessFeedback(eval.getCompletenessFeedback()).clarityScore(eval.getClarityScore()).clarityFeedback(eval.getClarityFeedback()).consistencyScore(eval.getConsistencyScore()).consistencyFeedback(eval.getConsistencyFeedback()).verificationScore(eval.getVerificationScore()).verificationFeedback(eval.getVerificationFeedback()).overallScore(eval.getOverallScore()).overallFeedback(eval.getOverallFeedback()).createdAt(eval.getCreatedAt()).build();
     }
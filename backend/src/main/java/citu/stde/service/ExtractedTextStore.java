@@ -0,0 +1,142 @@
+package citu.stde.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local disk store of extracted document text, keyed by Drive file id + Drive revision
+ * (md5Checksum / headRevisionId). A re-evaluation of an unchanged file skips both the
+ * download and the PDFBox/POI parse.
+ *
+ * Entries are gzip files read through a memory-mapped channel. The directory is capped at
+ * {@code max-mb}; the least recently used entries are deleted first.
+ */
+@Service
+public class ExtractedTextStore {
+
+    private static final String SUFFIX = ".txt.gz";
+
+    @Value("${app.evaluation.text-store.dir:${java.io.tmpdir}/stde-text-store}")
+    private String directory;
+
+    @Value("${app.evaluation.text-store.max-mb:256}")
+    private long maxMb;
+
+    private LruFileStore files;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @PostConstruct
+    void init() throws IOException {
+        files = new LruFileStore(Paths.get(directory), SUFFIX, maxMb * 1024 * 1024);
+        files.open();
+    }
+
+    public Optional<DocumentTextExtractor.ExtractedText> get(String driveFileId, String revision, int maxChars) {
+        if (driveFileId == null || revision == null) return Optional.empty();
+
+        String fileName = fileName(driveFileId, revision, maxChars);
+        Path file = files.lookup(fileName);
+        if (file == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            DocumentTextExtractor.ExtractedText text = read(mapped);
+            files.touch(file);
+            hits.increment();
+            return Optional.of(text);
+        } catch (IOException | RuntimeException e) {
+            // Missing or corrupt entry: drop it and fall back to a fresh extraction
+            files.remove(fileName);
+            misses.increment();
+            return Optional.empty();
+        }
+    }
+
+    public void put(String driveFileId, String revision, int maxChars, DocumentTextExtractor.ExtractedText text) {
+        if (driveFileId == null || revision == null) return;
+
+        String fileName = fileName(driveFileId, revision, maxChars);
+        Path temp = null;
+        try {
+            temp = files.createTemp("entry");
+            try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(temp)), StandardCharsets.UTF_8)) {
+                writer.write(text.contentHash() + "\t" + text.pages() + "\t" + text.totalChars() + "\t" + text.truncated() + "\n");
+                writer.write(text.content());
+            }
+            Path file = files.moveIntoPlace(temp, fileName);
+            files.added(fileName, Files.size(file));
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to store extracted text: " + e.getMessage());
+        } finally {
+            // Gone already after a successful move; otherwise a half-written entry
+            LruFileStore.deleteQuietly(temp);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long lookups = hits.sum() + misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) hits.sum() / lookups);
+        files.putStats(stats);
+        return stats;
+    }
+
+    private DocumentTextExtractor.ExtractedText read(ByteBuffer mapped) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteBufferInputStream(mapped)), StandardCharsets.UTF_8))) {
+            String[] header = reader.readLine().split("\t");
+            // totalChars is an upper bound (content may be truncated), so cap the initial capacity
+            StringBuilder content = new StringBuilder((int) Math.min(Long.parseLong(header[2]), 1 << 20));
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                content.append(buffer, 0, read);
+            }
+            return new DocumentTextExtractor.ExtractedText(
+                    content.toString(), header[0], Integer.parseInt(header[1]),
+                    Long.parseLong(header[2]), Boolean.parseBoolean(header[3]));
+        }
+    }
+
+    // Drive ids are URL-safe but revisions may not be, so the key is hashed
+    private static String fileName(String driveFileId, String revision, int maxChars) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest((driveFileId + ":" + revision + ":" + maxChars).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash) + SUFFIX;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,98 +1,86 @@
 package citu.stde.service;
 
-import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.google.api.client.googleapis.media.MediaHttpUploader;
+import com.google.api.client.http.HttpResponseException;
 import com.google.api.client.http.InputStreamContent;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.services.drive.Drive;
 import com.google.api.services.drive.model.File;
-import com.google.auth.http.HttpCredentialsAdapter;
-import com.google.auth.oauth2.AccessToken;
-import com.google.auth.oauth2.GoogleCredentials;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
-import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
-import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collections;
-import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class GoogleDriveService {
 
-    private final OAuth2AuthorizedClientService authorizedClientService;
-    private static final String APPLICATION_NAME = "STDE Platform";
-    private static final GsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+    private final DriveClientProvider driveClientProvider;
+    private final DriveBlobCache driveBlobCache;
 
-    /**
-     * Helper to build the Drive client using the current user's OAuth token
-     */
-    private Drive getDriveClient() throws IOException {
-        try {
-            // 1. Get the current user's email (Principal Name)
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String principalName = authentication.getName(); 
-
-            // 2. Load the OAuth2 client using the email
-            OAuth2AuthorizedClient client = authorizedClientService.loadAuthorizedClient("google", principalName);
+    // Resumable upload chunk; Drive requires a multiple of 256 KB. One chunk is held in memory so
+    // it can be resent after an interruption.
+    @Value("${app.drive.upload.chunk-size-kb:2048}")
+    private int uploadChunkSizeKb;
 
-            if (client == null || client.getAccessToken() == null) {
-                throw new IllegalStateException("Google Drive connection not found. Please logout and log in again with Google.");
-            }
-
-            // 3. Build the Drive Service
-            String accessToken = client.getAccessToken().getTokenValue();
-            GoogleCredentials credentials = GoogleCredentials.create(new AccessToken(accessToken, null));
-
-            final NetHttpTransport HTTP_TRANSPORT = GoogleNetHttpTransport.newTrustedTransport();
-
-            return new Drive.Builder(HTTP_TRANSPORT, JSON_FACTORY, new HttpCredentialsAdapter(credentials))
-                    .setApplicationName(APPLICATION_NAME)
-                    .build();
+    private Drive getDriveClient() throws IOException {
+        return driveClientProvider.forCurrentUser();
+    }
 
-        } catch (Exception e) {
-            throw new IOException("Failed to create Google Drive client: " + e.getMessage(), e);
+    // A 401 means the cached client's token is no longer accepted; the next call reloads it
+    private <T> T execute(DriveCall<T> call) throws IOException {
+        try {
+            return call.run(getDriveClient());
+        } catch (HttpResponseException e) {
+            if (e.getStatusCode() == 401) driveClientProvider.invalidateCurrentUser();
+            throw e;
         }
     }
 
+    @FunctionalInterface
+    private interface DriveCall<T> {
+        T run(Drive drive) throws IOException;
+    }
+
     /**
-     * Uploads a file to Google Drive.
-     * @param multipartFile The file from the frontend
-     * @param folderId Optional: The ID of the folder to upload to (can be null for root)
-     * @return The Drive File object (containing ID, WebViewLink, etc.)
+     * Streams a file of known length into a Drive resumable upload session, one chunk at a time.
+     * Only the current chunk is buffered; a failed chunk is retried from where Drive says it stopped.
      */
-    public File uploadFile(MultipartFile multipartFile, String folderId) throws IOException {
-        Drive driveService = getDriveClient();
-
-        // 1. Set file metadata
+    public File uploadStream(InputStream content, String filename, String contentType, long length,
+                             String folderId) throws IOException {
         File fileMetadata = new File();
-        fileMetadata.setName(multipartFile.getOriginalFilename());
-        
-        // If a folder ID is provided, place the file inside it
+        fileMetadata.setName(filename);
         if (folderId != null && !folderId.isEmpty()) {
             fileMetadata.setParents(Collections.singletonList(folderId));
         }
 
-        // 2. Set file content
-        InputStreamContent mediaContent = new InputStreamContent(
-                multipartFile.getContentType(),
-                multipartFile.getInputStream()
-        );
-
-        // 3. Upload
-        // We request 'id' and 'webViewLink' fields in the response
-        return driveService.files().create(fileMetadata, mediaContent)
-                .setFields("id, name, webViewLink, size, mimeType")
-                .execute();
+        InputStreamContent mediaContent = new InputStreamContent(contentType, content);
+        mediaContent.setLength(length);
+
+        int chunkSize = Math.max(1, uploadChunkSizeKb / 256) * MediaHttpUploader.MINIMUM_CHUNK_SIZE;
+        return execute(drive -> {
+            Drive.Files.Create create = drive.files().create(fileMetadata, mediaContent)
+                    .setFields("id, name, webViewLink, size, mimeType, md5Checksum");
+            create.getMediaHttpUploader()
+                    .setDirectUploadEnabled(false)
+                    .setChunkSize(chunkSize);
+            return create.execute();
+        });
+    }
+
+    /**
+     * Copies a file the user can see (e.g. picked from their own Drive) into a folder.
+     */
+    public File copyFile(String fileId, String folderId) throws IOException {
+        File copyMetadata = new File();
+        copyMetadata.setParents(Collections.singletonList(folderId));
+
+        return execute(drive -> drive.files().copy(fileId, copyMetadata)
+                .setFields("id, name, webViewLink, size, mimeType, md5Checksum")
+                .execute());
     }
 
     /**
@@ -100,8 +88,6 @@ public class GoogleDriveService {
      * Used when a Teacher creates a new Class.
      */
     public String createFolder(String folderName, String parentFolderId) throws IOException {
-        Drive driveService = getDriveClient();
-
         File fileMetadata = new File();
         fileMetadata.setName(folderName);
         fileMetadata.setMimeType("application/vnd.google-apps.folder");
@@ -110,9 +96,9 @@ public class GoogleDriveService {
             fileMetadata.setParents(Collections.singletonList(parentFolderId));
         }
 
-        File file = driveService.files().create(fileMetadata)
+        File file = execute(drive -> drive.files().create(fileMetadata)
                 .setFields("id")
-                .execute();
+                .execute());
 
         return file.getId();
     }
@@ -122,18 +108,55 @@ public class GoogleDriveService {
      * Used by the AI Evaluation Service to read the file text.
      */
     public InputStream downloadFile(String fileId) throws IOException {
-        Drive driveService = getDriveClient();
-        
         // For Google Docs/Slides (native formats), we might need export(), 
         // but for uploaded PDFs/DOCX, we use get().executeMedia()
-        return driveService.files().get(fileId).executeMediaAsInputStream();
+        return execute(drive -> drive.files().get(fileId).executeMediaAsInputStream());
+    }
+
+    /**
+     * Downloads a file through the local blob cache: a revision already on disk is read from there,
+     * anything else is downloaded once and kept. {@code revision} comes from {@link #getFileRevision};
+     * without one the cache is skipped.
+     */
+    public InputStream downloadFile(String fileId, String revision) throws IOException {
+        if (revision == null || !driveBlobCache.isEnabled()) return downloadFile(fileId);
+
+        Optional<InputStream> cached = driveBlobCache.open(fileId, revision);
+        if (cached.isPresent()) return cached.get();
+
+        try (InputStream download = downloadFile(fileId)) {
+            return driveBlobCache.store(fileId, revision, download);
+        }
+    }
+
+    /**
+     * Returns a string that changes whenever the file's content changes:
+     * md5Checksum for uploaded files, headRevisionId / modifiedTime for Google-native ones.
+     * A metadata-only call, far cheaper than downloading the file.
+     */
+    public String getFileRevision(String fileId) throws IOException {
+        File file = execute(drive -> drive.files().get(fileId)
+                .setFields("md5Checksum, headRevisionId, modifiedTime")
+                .execute());
+
+        if (file.getMd5Checksum() != null) return md5Revision(file);
+        if (file.getHeadRevisionId() != null) return "rev:" + file.getHeadRevisionId();
+        return file.getModifiedTime() != null ? "mtime:" + file.getModifiedTime().getValue() : null;
+    }
+
+    /**
+     * The revision {@link #getFileRevision} reports for a file with binary content, taken from the
+     * md5Checksum Drive returns on upload / copy. Unlike headRevisionId it is the same for the same bytes
+     * in any file. Null for Google-native files, which have no checksum.
+     */
+    public static String md5Revision(File file) {
+        return file.getMd5Checksum() != null ? "md5:" + file.getMd5Checksum() : null;
     }
 
     /**
      * Deletes a file from Google Drive (moves to trash).
      */
     public void deleteFile(String fileId) throws IOException {
-        Drive driveService = getDriveClient();
-        driveService.files().delete(fileId).execute();
+        execute(drive -> drive.files().delete(fileId).execute());
     }
 }
\ No newline at end of file
@@ -0,0 +1,179 @@
+package citu.stde.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Request hedging for scoring calls: when the first call has not answered by the p{@code percentile}
+ * of recent scoring latencies, an identical second call is sent and whichever returns a valid result
+ * first wins; the other is cancelled.
+ *
+ * Hedges are paid from a budget that grows by {@code max-extra-percent}/100 per primary call, so at
+ * most that share of extra calls is ever sent.
+ */
+@Service
+public class HedgedRequestService {
+
+    // Recent latencies kept for the deadline percentile
+    private static final int WINDOW = 256;
+    // Unused budget is capped so a quiet hour cannot bank a burst of hedges
+    private static final double MAX_BANKED_HEDGES = 5.0;
+
+    @Value("${app.llm.hedging.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.llm.hedging.percentile:95}")
+    private int percentile;
+
+    @Value("${app.llm.hedging.max-extra-percent:10}")
+    private double maxExtraPercent;
+
+    // Below this many samples the fallback deadline is used
+    @Value("${app.llm.hedging.min-samples:20}")
+    private int minSamples;
+
+    @Value("${app.llm.hedging.fallback-deadline-ms:20000}")
+    private long fallbackDeadlineMs;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Guarded by this
+    private final long[] latencies = new long[WINDOW];
+    private int latencyCount;
+    private int latencyPosition;
+    private double budget;
+
+    private final LongAdder primaryCalls = new LongAdder();
+    private final LongAdder hedgesSent = new LongAdder();
+    private final LongAdder hedgesSkippedForBudget = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder primaryWinsAfterHedge = new LongAdder();
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs {@code call}, hedging it once if it is slow.
+     *
+     * @param valid a result failing this check does not win; the other attempt is awaited instead
+     */
+    public <T> T call(Supplier<T> call, Predicate<T> valid) {
+        if (!enabled) {
+            return call.get();
+        }
+
+        primaryCalls.increment();
+        synchronized (this) {
+            budget = Math.min(MAX_BANKED_HEDGES, budget + maxExtraPercent / 100.0);
+        }
+
+        CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        Future<T> primary = completion.submit(() -> timed(call));
+        Future<T> hedge = null;
+        RuntimeException firstFailure = null;
+
+        try {
+            Future<T> done = completion.poll(currentDeadlineMs(), TimeUnit.MILLISECONDS);
+            if (done == null) {
+                if (takeHedgeBudget()) {
+                    hedgesSent.increment();
+                    hedge = completion.submit(() -> timed(call));
+                } else {
+                    hedgesSkippedForBudget.increment();
+                }
+                done = completion.take();
+            }
+
+            int pending = hedge == null ? 1 : 2;
+            while (pending-- > 0) {
+                try {
+                    T result = done.get();
+                    if (valid.test(result)) {
+                        if (hedge != null) {
+                            if (done == hedge) hedgeWins.increment();
+                            else primaryWinsAfterHedge.increment();
+                        }
+                        return result;
+                    }
+                    if (firstFailure == null) firstFailure = new RuntimeException("AI returned null scores.");
+                } catch (ExecutionException e) {
+                    if (firstFailure == null) firstFailure = unwrap(e);
+                }
+                if (pending > 0) done = completion.take();
+            }
+            throw firstFailure;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Scoring interrupted", e);
+        } finally {
+            primary.cancel(true);
+            if (hedge != null) hedge.cancel(true);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long primaries = primaryCalls.sum();
+        long hedges = hedgesSent.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("percentile", percentile);
+        stats.put("currentDeadlineMs", currentDeadlineMs());
+        stats.put("primaryCalls", primaries);
+        stats.put("hedgesSent", hedges);
+        stats.put("hedgeRate", primaries == 0 ? 0.0 : (double) hedges / primaries);
+        stats.put("hedgeWins", hedgeWins.sum());
+        stats.put("hedgeWinRate", hedges == 0 ? 0.0 : (double) hedgeWins.sum() / hedges);
+        stats.put("primaryWinsAfterHedge", primaryWinsAfterHedge.sum());
+        stats.put("hedgesSkippedForBudget", hedgesSkippedForBudget.sum());
+        return stats;
+    }
+
+    private <T> T timed(Supplier<T> call) {
+        long start = System.nanoTime();
+        T result = call.get();
+        recordLatency((System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    private synchronized void recordLatency(long millis) {
+        latencies[latencyPosition] = millis;
+        latencyPosition = (latencyPosition + 1) % WINDOW;
+        if (latencyCount < WINDOW) latencyCount++;
+    }
+
+    private synchronized long currentDeadlineMs() {
+        if (latencyCount < minSamples) return fallbackDeadlineMs;
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * latencyCount) - 1;
+        return sorted[Math.max(0, Math.min(index, latencyCount - 1))];
+    }
+
+    private synchronized boolean takeHedgeBudget() {
+        if (budget < 1.0) return false;
+        budget -= 1.0;
+        return true;
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        return cause instanceof RuntimeException re ? re : new RuntimeException(cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,18 @@
+package citu.stde.service;
+
+import java.util.UUID;
+
+/**
+ * Who an LLM call is made for, used to attribute token usage.
+ * userId / classroomId may be null (e.g. the admin health ping).
+ */
+public record LlmCallContext(String endpoint, UUID userId, UUID classroomId) {
+
+    public static LlmCallContext system(String endpoint) {
+        return new LlmCallContext(endpoint, null, null);
+    }
+
+    public LlmCallContext withEndpoint(String newEndpoint) {
+        return new LlmCallContext(newEndpoint, userId, classroomId);
+    }
+}
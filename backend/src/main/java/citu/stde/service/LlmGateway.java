@@ -0,0 +1,163 @@
+package citu.stde.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.client.ResponseEntity;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.converter.BeanOutputConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Single entry point for every ChatClient call in the app.
+ * Each call goes through {@link LlmResilience} (concurrency limit, retries, circuit breaker), and every
+ * attempt's prompt/completion tokens, latency and model are recorded through {@link LlmUsageTracker}.
+ */
+@Service
+@RequiredArgsConstructor
+public class LlmGateway {
+
+    // OpenAI 429 bodies say "Please try again in 20s" / "in 450ms", proxies "retry after 20 seconds",
+    // and our own TYPE:RATE_LIMIT messages "Please wait 20 seconds"
+    private static final Pattern RETRY_HINT = Pattern.compile(
+            "(?i)(?:try again in|retry after|please wait)\\s*(\\d+(?:\\.\\d+)?)\\s*(ms|s|sec|seconds?)?");
+
+    private final ChatClient.Builder chatClientBuilder;
+    private final LlmUsageTracker usageTracker;
+    private final LlmResilience resilience;
+
+    @Value("${spring.ai.openai.chat.options.model:gpt-4o-mini}")
+    private String defaultModel;
+
+    /**
+     * Structured call: the model's JSON answer is mapped onto {@code type}.
+     */
+    public <T> T callEntity(LlmCallContext context, String systemPrompt, String userTemplate,
+                            Map<String, Object> params, Class<T> type) {
+        return resilience.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                ResponseEntity<ChatResponse, T> response = prompt(systemPrompt, userTemplate, params)
+                        .call()
+                        .responseEntity(type);
+                record(context, response.response(), start, false);
+                return response.entity();
+            } catch (RuntimeException e) {
+                record(context, null, start, true);
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Streamed structured call: {@code onPartialText} gets the answer accumulated so far after every
+     * streamed token batch (restarting from empty if the call is retried), and the complete JSON is
+     * mapped onto {@code type} at the end.
+     */
+    public <T> T streamEntity(LlmCallContext context, String systemPrompt, String userTemplate,
+                              Map<String, Object> params, Class<T> type, Consumer<String> onPartialText) {
+        // Same format instructions responseEntity() appends to the user message
+        BeanOutputConverter<T> converter = new BeanOutputConverter<>(type);
+        Map<String, Object> withFormat = new HashMap<>(params);
+        withFormat.put("format", converter.getFormat());
+
+        String text = resilience.execute(() -> {
+            long start = System.nanoTime();
+            StringBuilder answer = new StringBuilder();
+            // The usage-bearing chunk is the last one when stream usage is enabled
+            AtomicReference<ChatResponse> lastChunk = new AtomicReference<>();
+            try {
+                prompt(systemPrompt, userTemplate + "\n{format}", withFormat)
+                        .stream()
+                        .chatResponse()
+                        .doOnNext(chunk -> {
+                            lastChunk.set(chunk);
+                            if (chunk.getResult() != null && chunk.getResult().getOutput().getText() != null) {
+                                answer.append(chunk.getResult().getOutput().getText());
+                                onPartialText.accept(answer.toString());
+                            }
+                        })
+                        .blockLast();
+                record(context, lastChunk.get(), start, false);
+                return answer.toString();
+            } catch (RuntimeException e) {
+                record(context, null, start, true);
+                throw e;
+            }
+        });
+        return converter.convert(text);
+    }
+
+    /**
+     * Plain text call (e.g. the YES/NO validation gate, the health ping).
+     */
+    public String callContent(LlmCallContext context, String systemPrompt, String userTemplate,
+                              Map<String, Object> params) {
+        return resilience.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                ChatResponse response = prompt(systemPrompt, userTemplate, params).call().chatResponse();
+                record(context, response, start, false);
+                return response != null && response.getResult() != null
+                        ? response.getResult().getOutput().getText()
+                        : null;
+            } catch (RuntimeException e) {
+                record(context, null, start, true);
+                throw e;
+            }
+        });
+    }
+
+    private ChatClient.ChatClientRequestSpec prompt(String systemPrompt, String userTemplate, Map<String, Object> params) {
+        ChatClient.ChatClientRequestSpec spec = chatClientBuilder.build().prompt();
+        if (systemPrompt != null) {
+            spec = spec.system(systemPrompt);
+        }
+        // Without params the text is sent as-is (no template rendering of user content)
+        return spec.user(u -> {
+            u.text(userTemplate);
+            if (params != null && !params.isEmpty()) u.params(params);
+        });
+    }
+
+    private void record(LlmCallContext context, ChatResponse response, long startNanos, boolean failed) {
+        long latencyMs = (System.nanoTime() - startNanos) / 1_000_000;
+        String model = defaultModel;
+        Integer promptTokens = null;
+        Integer completionTokens = null;
+
+        if (response != null && response.getMetadata() != null) {
+            if (response.getMetadata().getModel() != null && !response.getMetadata().getModel().isBlank()) {
+                model = response.getMetadata().getModel();
+            }
+            Usage usage = response.getMetadata().getUsage();
+            if (usage != null) {
+                promptTokens = usage.getPromptTokens();
+                completionTokens = usage.getCompletionTokens();
+            }
+        }
+        usageTracker.record(context, model, promptTokens, completionTokens, latencyMs, failed);
+    }
+
+    /**
+     * Wait suggested by a rate-limit error message, rounded up to whole seconds.
+     */
+    public static Optional<Long> retryAfterSeconds(String errorMessage) {
+        if (errorMessage == null) return Optional.empty();
+        Matcher matcher = RETRY_HINT.matcher(errorMessage);
+        if (!matcher.find()) return Optional.empty();
+
+        double value = Double.parseDouble(matcher.group(1));
+        double seconds = "ms".equalsIgnoreCase(matcher.group(2)) ? value / 1000 : value;
+        return Optional.of(Math.max(1L, (long) Math.ceil(seconds)));
+    }
+}
@@ -0,0 +1,389 @@
+package citu.stde.service;
+
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Resilience layer applied by {@link LlmGateway} to every OpenAI call:
+ * <ul>
+ *   <li>an AIMD concurrency limit: +1/limit per success, halved on every 429, so in-flight calls settle
+ *       just under what the provider accepts;</li>
+ *   <li>retries with full-jitter exponential backoff, never sooner than the provider's retry hint;</li>
+ *   <li>a circuit breaker over the last {@code window-size} calls that fails fast while the provider
+ *       is down and lets a single probe through after {@code open-seconds}.</li>
+ * </ul>
+ * Spring AI's own RetryTemplate is switched off (spring.ai.retry.max-attempts=1) so calls are not
+ * retried twice.
+ */
+@Component
+public class LlmResilience {
+
+    private enum Outcome { SUCCESS, RATE_LIMITED, TRANSIENT, PERMANENT, CANCELLED }
+
+    private enum BreakerState { CLOSED, OPEN, HALF_OPEN }
+
+    @Value("${app.llm.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.llm.retry.base-delay-ms:1000}")
+    private long baseDelayMs;
+
+    @Value("${app.llm.retry.max-delay-ms:20000}")
+    private long maxDelayMs;
+
+    // A 429 asking us to wait longer than this is handed back to the caller instead of slept through
+    @Value("${app.llm.retry.max-retry-after-seconds:60}")
+    private long maxRetryAfterSeconds;
+
+    @Value("${app.llm.breaker.window-size:20}")
+    private int windowSize;
+
+    @Value("${app.llm.breaker.min-calls:10}")
+    private int minCalls;
+
+    @Value("${app.llm.breaker.failure-rate-percent:50}")
+    private int failureRatePercent;
+
+    @Value("${app.llm.breaker.open-seconds:30}")
+    private long openSeconds;
+
+    @Value("${app.llm.limiter.initial-limit:8}")
+    private double limit;
+
+    @Value("${app.llm.limiter.min-limit:1}")
+    private int minLimit;
+
+    @Value("${app.llm.limiter.max-limit:32}")
+    private int maxLimit;
+
+    @Value("${app.llm.limiter.acquire-timeout-seconds:60}")
+    private long acquireTimeoutSeconds;
+
+    // Limiter state, guarded by limiterLock
+    private final Object limiterLock = new Object();
+    private int inFlight;
+
+    // Breaker state, guarded by breakerLock
+    private final Object breakerLock = new Object();
+    private boolean[] window;
+    private int windowPosition;
+    private int windowCount;
+    private int windowFailures;
+    private BreakerState breakerState = BreakerState.CLOSED;
+    private Instant openedUntil;
+    private boolean probeInFlight;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder rejectedByBreaker = new LongAdder();
+    private final LongAdder limiterTimeouts = new LongAdder();
+    private final LongAdder breakerOpenings = new LongAdder();
+
+    public <T> T execute(Supplier<T> call) {
+        for (int attempt = 1; ; attempt++) {
+            boolean probe = enterBreaker();
+            try {
+                acquirePermit();
+            } catch (RuntimeException e) {
+                if (probe) releaseProbe();
+                throw e;
+            }
+
+            RuntimeException failure;
+            Outcome outcome;
+            try {
+                calls.increment();
+                T result = call.get();
+                onOutcome(Outcome.SUCCESS, probe);
+                return result;
+            } catch (RuntimeException e) {
+                failure = e;
+                outcome = classify(e);
+                onOutcome(outcome, probe);
+            } finally {
+                releasePermit();
+            }
+
+            long delayMs = retryDelayMs(outcome, failure, attempt);
+            if (delayMs < 0) {
+                throw giveUp(outcome, failure);
+            }
+            retries.increment();
+            sleep(delayMs);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (breakerLock) {
+            stats.put("breakerState", breakerState.name());
+            stats.put("breakerOpenUntil", breakerState == BreakerState.OPEN ? openedUntil : null);
+            stats.put("windowCalls", windowCount);
+            stats.put("windowFailures", windowFailures);
+        }
+        synchronized (limiterLock) {
+            stats.put("concurrencyLimit", (int) limit);
+            stats.put("inFlight", inFlight);
+        }
+        stats.put("calls", calls.sum());
+        stats.put("retries", retries.sum());
+        stats.put("rateLimited", rateLimited.sum());
+        stats.put("rejectedByBreaker", rejectedByBreaker.sum());
+        stats.put("limiterTimeouts", limiterTimeouts.sum());
+        stats.put("breakerOpenings", breakerOpenings.sum());
+        return stats;
+    }
+
+    // ---- Circuit breaker ----
+
+    // Returns true when this call is the half-open probe
+    private boolean enterBreaker() {
+        synchronized (breakerLock) {
+            if (breakerState == BreakerState.OPEN && Instant.now().isAfter(openedUntil)) {
+                breakerState = BreakerState.HALF_OPEN;
+            }
+            if (breakerState == BreakerState.HALF_OPEN && !probeInFlight) {
+                probeInFlight = true;
+                return true;
+            }
+            if (breakerState != BreakerState.CLOSED) {
+                rejectedByBreaker.increment();
+                long waitSeconds = breakerState == BreakerState.OPEN
+                        ? Math.max(1, openedUntil.getEpochSecond() - Instant.now().getEpochSecond())
+                        : openSeconds;
+                throw new RuntimeException("TYPE:AI_UNAVAILABLE|The AI service is temporarily unavailable. Please try again in " + waitSeconds + " seconds.");
+            }
+            return false;
+        }
+    }
+
+    private void onOutcome(Outcome outcome, boolean probe) {
+        // Nobody wants the answer any more (discarded speculative score, losing hedge): says nothing
+        // about the provider, so neither the limiter nor the breaker hears about it
+        if (outcome == Outcome.CANCELLED) {
+            if (probe) releaseProbe();
+            return;
+        }
+        if (outcome == Outcome.RATE_LIMITED) {
+            rateLimited.increment();
+            decreaseLimit();
+        } else if (outcome == Outcome.SUCCESS) {
+            increaseLimit();
+        }
+
+        // 429s are the limiter's job and permanent errors (bad request, bad JSON) say nothing
+        // about provider health, so only successes and transient failures feed the breaker
+        boolean failed = outcome == Outcome.TRANSIENT;
+        synchronized (breakerLock) {
+            if (probe) {
+                probeInFlight = false;
+                if (failed) {
+                    open();
+                } else {
+                    breakerState = BreakerState.CLOSED;
+                    resetWindow();
+                }
+                return;
+            }
+            if (outcome != Outcome.SUCCESS && outcome != Outcome.TRANSIENT) return;
+            if (breakerState != BreakerState.CLOSED) return;
+
+            if (window == null) window = new boolean[windowSize];
+            if (windowCount == windowSize) {
+                if (window[windowPosition]) windowFailures--;
+            } else {
+                windowCount++;
+            }
+            window[windowPosition] = failed;
+            if (failed) windowFailures++;
+            windowPosition = (windowPosition + 1) % windowSize;
+
+            if (windowCount >= minCalls && windowFailures * 100 >= failureRatePercent * windowCount) {
+                open();
+            }
+        }
+    }
+
+    private void releaseProbe() {
+        synchronized (breakerLock) {
+            probeInFlight = false;
+        }
+    }
+
+    // Caller holds breakerLock
+    private void open() {
+        breakerState = BreakerState.OPEN;
+        openedUntil = Instant.now().plusSeconds(openSeconds);
+        breakerOpenings.increment();
+        resetWindow();
+        System.err.println("Warning: OpenAI circuit breaker opened for " + openSeconds + "s");
+    }
+
+    // Caller holds breakerLock
+    private void resetWindow() {
+        window = new boolean[windowSize];
+        windowPosition = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+
+    // ---- AIMD concurrency limit ----
+
+    private void acquirePermit() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(acquireTimeoutSeconds);
+        synchronized (limiterLock) {
+            while (inFlight >= (int) limit) {
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    limiterTimeouts.increment();
+                    throw new RuntimeException("TYPE:RATE_LIMIT|AI is busy. Please wait 30 seconds.");
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(limiterLock, remainingNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while waiting for an AI slot", e);
+                }
+            }
+            inFlight++;
+        }
+    }
+
+    private void releasePermit() {
+        synchronized (limiterLock) {
+            inFlight--;
+            limiterLock.notifyAll();
+        }
+    }
+
+    private void increaseLimit() {
+        synchronized (limiterLock) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+            limiterLock.notifyAll();
+        }
+    }
+
+    private void decreaseLimit() {
+        synchronized (limiterLock) {
+            limit = Math.max(minLimit, limit / 2);
+        }
+    }
+
+    // ---- Retry ----
+
+    private Outcome classify(RuntimeException e) {
+        if (isCancellation(e)) return Outcome.CANCELLED;
+        String message = e.getMessage() == null ? "" : e.getMessage().toLowerCase();
+        // "insufficient_quota" is also a 429, but waiting will not fix it
+        if (message.contains("insufficient_quota")) return Outcome.PERMANENT;
+        if (message.contains("429") || message.contains("rate limit")) return Outcome.RATE_LIMITED;
+        if (e instanceof TransientAiException || e instanceof ResourceAccessException) return Outcome.TRANSIENT;
+        if (message.matches("(?s).*\\b(500|502|503|504)\\b.*") || message.contains("timed out")) return Outcome.TRANSIENT;
+        return Outcome.PERMANENT;
+    }
+
+    // -1 means do not retry
+    private long retryDelayMs(Outcome outcome, RuntimeException failure, int attempt) {
+        if (attempt >= maxAttempts) return -1;
+        if (outcome != Outcome.RATE_LIMITED && outcome != Outcome.TRANSIENT) return -1;
+
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        long jittered = ThreadLocalRandom.current().nextLong(ceiling + 1);
+
+        if (outcome == Outcome.RATE_LIMITED) {
+            Long hintSeconds = retryAfterSeconds(failure).orElse(null);
+            if (hintSeconds != null) {
+                if (hintSeconds > maxRetryAfterSeconds) return -1;
+                return Math.max(jittered, TimeUnit.SECONDS.toMillis(hintSeconds));
+            }
+        }
+        return jittered;
+    }
+
+    private RuntimeException giveUp(Outcome outcome, RuntimeException failure) {
+        if (outcome == Outcome.RATE_LIMITED) {
+            long waitSeconds = retryAfterSeconds(failure).orElse(30L);
+            return new RuntimeException("TYPE:RATE_LIMIT|AI is busy. Please wait " + waitSeconds + " seconds.", failure);
+        }
+        return failure;
+    }
+
+    // cancel(true) interrupts the calling thread; the I/O layer then fails with whatever it wraps the
+    // interrupt in, so both the flag and the cause chain are checked
+    private static boolean isCancellation(Throwable e) {
+        if (Thread.currentThread().isInterrupted()) return true;
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException || cause instanceof InterruptedIOException
+                    || cause instanceof ClosedByInterruptException || cause instanceof CancellationException) {
+                return true;
+            }
+            if (cause.getCause() == cause) break;
+        }
+        return false;
+    }
+
+    // The Retry-After header when the exception still carries the HTTP response, else the hint
+    // OpenAI puts in the error message
+    private static Optional<Long> retryAfterSeconds(RuntimeException failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            HttpHeaders headers = null;
+            if (cause instanceof RestClientResponseException response) headers = response.getResponseHeaders();
+            if (cause instanceof WebClientResponseException response) headers = response.getHeaders();
+            Optional<Long> fromHeader = retryAfterHeader(headers);
+            if (fromHeader.isPresent()) return fromHeader;
+            if (cause.getCause() == cause) break;
+        }
+        return LlmGateway.retryAfterSeconds(failure.getMessage());
+    }
+
+    private static Optional<Long> retryAfterHeader(HttpHeaders headers) {
+        if (headers == null) return Optional.empty();
+        String millis = headers.getFirst("retry-after-ms");
+        String value = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        try {
+            if (millis != null) {
+                return Optional.of(Math.max(1L, (long) Math.ceil(Double.parseDouble(millis.trim()) / 1000)));
+            }
+            if (value == null) return Optional.empty();
+            if (value.trim().chars().allMatch(Character::isDigit)) {
+                return Optional.of(Math.max(1L, Long.parseLong(value.trim())));
+            }
+            // HTTP-date form
+            long seconds = Duration.between(Instant.now(),
+                    ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)).toSeconds();
+            return Optional.of(Math.max(1L, seconds));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void sleep(long delayMs) {
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while backing off an AI call", e);
+        }
+    }
+}
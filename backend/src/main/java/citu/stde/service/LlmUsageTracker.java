@@ -0,0 +1,138 @@
+package citu.stde.service;
+
+import citu.stde.dto.LlmUsageSummary;
+import citu.stde.repository.LlmUsageRollupRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates token usage and latency of every LLM call into hourly buckets per user,
+ * per classroom and per endpoint. Buckets live in memory and are flushed to
+ * llm_usage_rollups on a schedule, so recording a call never touches the database.
+ */
+@Service
+@RequiredArgsConstructor
+public class LlmUsageTracker {
+
+    public static final String USER = "USER";
+    public static final String CLASSROOM = "CLASSROOM";
+    public static final String ENDPOINT = "ENDPOINT";
+
+    private final LlmUsageRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<BucketKey, Bucket> pending = new ConcurrentHashMap<>();
+
+    public void record(LlmCallContext context, String model, Integer promptTokens, Integer completionTokens,
+                       long latencyMs, boolean failed) {
+        Instant hour = Instant.now().truncatedTo(ChronoUnit.HOURS);
+        String safeModel = model != null ? model : "unknown";
+        long prompt = promptTokens != null ? promptTokens : 0;
+        long completion = completionTokens != null ? completionTokens : 0;
+
+        add(new BucketKey(hour, ENDPOINT, context.endpoint(), safeModel), prompt, completion, latencyMs, failed);
+        if (context.userId() != null) {
+            add(new BucketKey(hour, USER, context.userId().toString(), safeModel), prompt, completion, latencyMs, failed);
+        }
+        if (context.classroomId() != null) {
+            add(new BucketKey(hour, CLASSROOM, context.classroomId().toString(), safeModel), prompt, completion, latencyMs, failed);
+        }
+    }
+
+    // Each bucket is taken out atomically (add() only touches buckets inside compute) and written in
+    // its own transaction; a bucket whose write fails is merged back and retried on the next flush
+    @Scheduled(fixedDelayString = "${app.llm.usage.flush-interval-ms:60000}")
+    public void flush() {
+        for (BucketKey key : new ArrayList<>(pending.keySet())) {
+            Bucket bucket = pending.remove(key);
+            if (bucket == null || bucket.calls.sum() == 0) continue;
+            try {
+                transactionTemplate.executeWithoutResult(status -> rollupRepository.upsert(
+                        key.hour(), key.dimension(), key.dimensionKey(), key.model(),
+                        bucket.calls.sum(), bucket.errors.sum(),
+                        bucket.promptTokens.sum(), bucket.completionTokens.sum(),
+                        bucket.totalLatencyMs.sum(), bucket.maxLatencyMs.get()));
+            } catch (RuntimeException e) {
+                pending.compute(key, (k, current) -> current == null ? bucket : current.absorb(bucket));
+                System.err.println("Warning: Failed to flush LLM usage bucket " + key + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            System.err.println("Warning: Failed to flush LLM usage on shutdown: " + e.getMessage());
+        }
+    }
+
+    public List<Map<String, Object>> getUsage(String dimension, int hours) {
+        flush();
+        Instant since = Instant.now().minus(hours, ChronoUnit.HOURS).truncatedTo(ChronoUnit.HOURS);
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (LlmUsageSummary summary : rollupRepository.summarize(dimension, since)) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("key", summary.getDimensionKey());
+            row.put("model", summary.getModel());
+            row.put("calls", summary.getCalls());
+            row.put("errors", summary.getErrors());
+            row.put("promptTokens", summary.getPromptTokens());
+            row.put("completionTokens", summary.getCompletionTokens());
+            row.put("avgLatencyMs", summary.getCalls() == 0 ? 0 : summary.getTotalLatencyMs() / summary.getCalls());
+            row.put("maxLatencyMs", summary.getMaxLatencyMs());
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    // Updated inside compute so flush() can never remove a bucket while it is being added to
+    private void add(BucketKey key, long prompt, long completion, long latencyMs, boolean failed) {
+        pending.compute(key, (k, bucket) -> {
+            Bucket target = bucket != null ? bucket : new Bucket();
+            target.calls.increment();
+            if (failed) target.errors.increment();
+            target.promptTokens.add(prompt);
+            target.completionTokens.add(completion);
+            target.totalLatencyMs.add(latencyMs);
+            target.maxLatencyMs.accumulate(latencyMs);
+            return target;
+        });
+    }
+
+    private record BucketKey(Instant hour, String dimension, String dimensionKey, String model) {}
+
+    private static class Bucket {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder completionTokens = new LongAdder();
+        private final LongAdder totalLatencyMs = new LongAdder();
+        private final LongAccumulator maxLatencyMs = new LongAccumulator(Long::max, 0);
+
+        Bucket absorb(Bucket other) {
+            calls.add(other.calls.sum());
+            errors.add(other.errors.sum());
+            promptTokens.add(other.promptTokens.sum());
+            completionTokens.add(other.completionTokens.sum());
+            totalLatencyMs.add(other.totalLatencyMs.sum());
+            maxLatencyMs.accumulate(other.maxLatencyMs.get());
+            return this;
+        }
+    }
+}
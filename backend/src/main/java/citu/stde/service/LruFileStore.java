@@ -0,0 +1,151 @@
+package citu.stde.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * A directory of files capped at a total size, least recently used deleted first. Shared by the
+ * local disk caches (ExtractedTextStore, DriveBlobCache); what goes in a file is up to them.
+ *
+ * Entries are written to a temp file and moved into place atomically, so readers never see a
+ * half-written one. Access order survives a restart through last-modified times, which
+ * {@link #touch} updates on every read. Temp files left by a crash are deleted on {@link #open}.
+ */
+class LruFileStore {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path root;
+    private final String suffix;
+    private final long maxBytes;
+
+    // file name -> size on disk, in access order (eldest = least recently used)
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    private final LongAdder evictions = new LongAdder();
+
+    LruFileStore(Path root, String suffix, long maxBytes) {
+        this.root = root;
+        this.suffix = suffix;
+        this.maxBytes = maxBytes;
+    }
+
+    void open() throws IOException {
+        Files.createDirectories(root);
+
+        // Never indexed, so they would escape the size cap
+        try (Stream<Path> files = Files.list(root)) {
+            files.filter(path -> path.getFileName().toString().endsWith(TEMP_SUFFIX))
+                    .forEach(LruFileStore::deleteQuietly);
+        }
+
+        try (Stream<Path> files = Files.list(root)) {
+            List<Path> entries = files
+                    .filter(path -> path.getFileName().toString().endsWith(suffix))
+                    .sorted(Comparator.comparing(LruFileStore::lastModified))
+                    .toList();
+            synchronized (index) {
+                for (Path entry : entries) {
+                    long size = Files.size(entry);
+                    index.put(entry.getFileName().toString(), size);
+                    totalBytes += size;
+                }
+                evictIfNeeded();
+            }
+        }
+    }
+
+    /**
+     * @return the entry's path, marked as most recently used, or null when it is not stored
+     */
+    Path lookup(String fileName) {
+        synchronized (index) {
+            return index.get(fileName) != null ? root.resolve(fileName) : null;
+        }
+    }
+
+    // Persists the access for the LRU order rebuilt on the next start
+    void touch(Path file) throws IOException {
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+    }
+
+    Path createTemp(String prefix) throws IOException {
+        return Files.createTempFile(root, prefix, TEMP_SUFFIX);
+    }
+
+    // Not indexed yet: call added() once the caller is done with the new file
+    Path moveIntoPlace(Path temp, String fileName) throws IOException {
+        Path file = root.resolve(fileName);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return file;
+    }
+
+    void added(String fileName, long size) {
+        synchronized (index) {
+            Long previous = index.put(fileName, size);
+            totalBytes += size - (previous != null ? previous : 0);
+            evictIfNeeded();
+        }
+    }
+
+    // Missing or corrupt entries
+    void remove(String fileName) {
+        synchronized (index) {
+            Long size = index.remove(fileName);
+            if (size != null) totalBytes -= size;
+        }
+        deleteQuietly(root.resolve(fileName));
+    }
+
+    void putStats(Map<String, Object> stats) {
+        stats.put("evictions", evictions.sum());
+        synchronized (index) {
+            stats.put("entries", index.size());
+            stats.put("bytes", totalBytes);
+        }
+        stats.put("maxBytes", maxBytes);
+    }
+
+    static void deleteQuietly(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    // Caller holds the index lock
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            try {
+                Files.deleteIfExists(root.resolve(entry.getKey()));
+            } catch (IOException e) {
+                System.err.println("Warning: Failed to evict " + root.resolve(entry.getKey()) + ": " + e.getMessage());
+            }
+            totalBytes -= entry.getValue();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package citu.stde.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Shrinks extracted text before it is put into a prompt:
+ * <ul>
+ *   <li>headers / footers repeated at the top or bottom of most pages, and bare page numbers on a
+ *       page's first / last line (only when they follow the page index on most pages, so bare
+ *       numbers from tables survive);</li>
+ *   <li>"Page 3 of 12" lines anywhere;</li>
+ *   <li>table-of-contents dot leaders and table border lines;</li>
+ *   <li>runs of spaces, tabs and blank lines.</li>
+ * </ul>
+ * Pages are separated by form feeds ({@link DocumentTextExtractor} emits one after every PDF page).
+ */
+@Service
+public class PromptCompactor {
+
+    // Bump when the rules change: results cached for the old output must not be reused
+    public static final String VERSION = "2";
+
+    // Lines at each end of a page that may hold a header / footer
+    private static final int EDGE_LINES = 3;
+    // Share of pages a line must repeat on to count as boilerplate
+    private static final double REPEAT_SHARE = 0.5;
+    private static final int MIN_PAGES = 3;
+
+    private static final Pattern PAGE_NUMBER = Pattern.compile(
+            "(?i)^\\s*(?:[-–—]\\s*)?(?:page\\s*)?\\d{1,4}(?:\\s*(?:of|/)\\s*\\d{1,4})?(?:\\s*[-–—])?\\s*$");
+    private static final Pattern EXPLICIT_PAGE_NUMBER = Pattern.compile(
+            "(?i)^\\s*page\\s+\\d{1,4}(?:\\s*(?:of|/)\\s*\\d{1,4})?\\s*$");
+    private static final Pattern DOT_LEADER = Pattern.compile("\\s*(?:[.·…_]\\s?){4,}\\s*");
+    private static final Pattern TABLE_BORDER = Pattern.compile("^[\\s\\-=_+|:─━│┃┼╋┌┐└┘├┤┬┴═║╔╗╚╝╠╣╦╩╬]{3,}$");
+    private static final Pattern RULE_RUN = Pattern.compile("([-=─━═])\\1{3,}");
+    private static final Pattern EMPTY_CELLS = Pattern.compile("\\|(?:\\s*\\|)+");
+    private static final Pattern HORIZONTAL_SPACE = Pattern.compile("[ \\t\\u00A0\\u2007\\u202F]+");
+    private static final Pattern INVISIBLE = Pattern.compile("[\\u200B-\\u200D\\uFEFF\\u00AD]");
+    private static final Pattern DIGITS = Pattern.compile("\\d+");
+    // Test case ids repeat per page by design and must never be taken for a running header
+    private static final Pattern TEST_CASE_LINE = Pattern.compile("(?i)\\b(?:tc|test\\s*case)\\b");
+    // Printed page numbers may be offset from the physical page (unnumbered cover, TOC pages)
+    private static final int PAGE_NUMBER_OFFSET = 3;
+
+    @Value("${app.evaluation.compaction.enabled:true}")
+    private boolean enabled;
+
+    private final LongAdder documents = new LongAdder();
+    private final LongAdder charsIn = new LongAdder();
+    private final LongAdder charsOut = new LongAdder();
+    private final LongAdder tokensSaved = new LongAdder();
+    private final LongAdder boilerplateLines = new LongAdder();
+    private final LongAccumulator maxTokensSaved = new LongAccumulator(Long::max, 0);
+
+    public record Result(String text, int originalChars, int compactedChars, int tokensSaved) {}
+
+    public Result compact(String text) {
+        if (text == null) return new Result(null, 0, 0, 0);
+        if (!enabled) return new Result(text, text.length(), text.length(), 0);
+
+        List<List<String>> pages = new ArrayList<>();
+        for (String page : text.split("\f", -1)) {
+            pages.add(new ArrayList<>(List.of(page.split("\\R", -1))));
+        }
+        if (pages.size() >= MIN_PAGES) {
+            stripRepeatedEdges(pages);
+        }
+
+        StringBuilder out = new StringBuilder(text.length());
+        int blankRun = 0;
+        for (List<String> page : pages) {
+            for (String rawLine : page) {
+                String line = compactLine(rawLine);
+                if (line == null) continue;
+                if (line.isEmpty()) {
+                    // Keep at most one blank line: paragraph breaks still matter to the chunker
+                    if (++blankRun > 1 || out.isEmpty()) continue;
+                } else {
+                    blankRun = 0;
+                }
+                out.append(line).append('\n');
+            }
+        }
+        String compacted = out.toString().strip();
+
+        documents.increment();
+        charsIn.add(text.length());
+        charsOut.add(compacted.length());
+        int saved = Math.max(0, ChunkedEvaluationService.estimateTokens(text) - ChunkedEvaluationService.estimateTokens(compacted));
+        tokensSaved.add(saved);
+        maxTokensSaved.accumulate(saved);
+        return new Result(compacted, text.length(), compacted.length(), saved);
+    }
+
+    public Map<String, Object> getStats() {
+        long in = charsIn.sum();
+        long out = charsOut.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("documents", documents.sum());
+        stats.put("charsIn", in);
+        stats.put("charsOut", out);
+        stats.put("estimatedTokensSaved", tokensSaved.sum());
+        stats.put("avgTokensSavedPerDocument", documents.sum() == 0 ? 0 : tokensSaved.sum() / documents.sum());
+        stats.put("maxTokensSavedPerDocument", maxTokensSaved.get());
+        stats.put("savedRatio", in == 0 ? 0.0 : (double) (in - out) / in);
+        stats.put("boilerplateLinesRemoved", boilerplateLines.sum());
+        return stats;
+    }
+
+    // Null means drop the line
+    private String compactLine(String line) {
+        String compacted = INVISIBLE.matcher(line).replaceAll("");
+        compacted = HORIZONTAL_SPACE.matcher(compacted).replaceAll(" ").strip();
+        if (compacted.isEmpty()) return "";
+        if (EXPLICIT_PAGE_NUMBER.matcher(compacted).matches()) return null;
+        if (TABLE_BORDER.matcher(compacted).matches()) return null;
+
+        compacted = DOT_LEADER.matcher(compacted).replaceAll(" ... ");
+        compacted = RULE_RUN.matcher(compacted).replaceAll("$1$1$1");
+        compacted = EMPTY_CELLS.matcher(compacted).replaceAll("|");
+        return compacted;
+    }
+
+    /**
+     * Removes lines found within the first / last few lines of at least half the pages, plus bare
+     * page numbers on the first or last line left after that (the side the document numbers on).
+     */
+    private void stripRepeatedEdges(List<List<String>> pages) {
+        Map<String, Integer> pagesWithLine = new HashMap<>();
+        for (int p = 0; p < pages.size(); p++) {
+            List<String> page = pages.get(p);
+            Set<String> seen = new HashSet<>();
+            for (int index : edgeIndexes(page)) {
+                String key = edgeKey(page.get(index), p + 1, pages.size());
+                if (!key.isEmpty() && seen.add(key)) pagesWithLine.merge(key, 1, Integer::sum);
+            }
+        }
+        int threshold = (int) Math.max(MIN_PAGES, Math.ceil(pages.size() * REPEAT_SHARE));
+
+        // Per page: the first and last edge line that is not repeated boilerplate, where a printed
+        // page number sits (also when it is printed next to a running header / footer)
+        int[][] outerLines = new int[pages.size()][];
+        for (int p = 0; p < pages.size(); p++) {
+            List<String> page = pages.get(p);
+            List<Integer> remaining = new ArrayList<>();
+            for (int index : edgeIndexes(page)) {
+                String key = edgeKey(page.get(index), p + 1, pages.size());
+                if (!key.isEmpty() && pagesWithLine.getOrDefault(key, 0) >= threshold) {
+                    page.set(index, null);
+                    boilerplateLines.increment();
+                } else {
+                    remaining.add(index);
+                }
+            }
+            outerLines[p] = remaining.isEmpty() ? null
+                    : new int[] {remaining.get(0), remaining.get(remaining.size() - 1)};
+        }
+
+        PageNumbering numbering = pageNumbering(pages, outerLines, threshold);
+        for (int p = 0; p < pages.size(); p++) {
+            List<String> page = pages.get(p);
+            if (numbering != null && outerLines[p] != null) {
+                int index = outerLines[p][numbering.side()];
+                if (Integer.valueOf(p + 1 + numbering.offset()).equals(bareNumber(page.get(index)))) {
+                    page.set(index, null);
+                    boilerplateLines.increment();
+                }
+            }
+            page.removeIf(line -> line == null);
+        }
+    }
+
+    // side: 0 = top of the page, 1 = bottom; offset: printed number minus physical page
+    private record PageNumbering(int side, int offset) {}
+
+    /**
+     * Where the document prints its page numbers: the side and the offset from the physical page
+     * (unnumbered cover, TOC pages) that hold for at least {@code threshold} pages. Null when the
+     * bare numbers on the outer lines do not follow the pages (table cells, step numbers).
+     */
+    private static PageNumbering pageNumbering(List<List<String>> pages, int[][] outerLines, int threshold) {
+        PageNumbering best = null;
+        int bestPages = 0;
+        for (int side = 0; side <= 1; side++) {
+            for (int offset = -PAGE_NUMBER_OFFSET; offset <= PAGE_NUMBER_OFFSET; offset++) {
+                int matching = 0;
+                for (int p = 0; p < pages.size(); p++) {
+                    if (outerLines[p] != null
+                            && Integer.valueOf(p + 1 + offset).equals(bareNumber(pages.get(p).get(outerLines[p][side])))) {
+                        matching++;
+                    }
+                }
+                if (matching > bestPages) {
+                    best = new PageNumbering(side, offset);
+                    bestPages = matching;
+                }
+            }
+        }
+        return bestPages >= threshold ? best : null;
+    }
+
+    // The number on a line that holds nothing but a page number ("7", "- 7 -", "7 / 12"), else null
+    private static Integer bareNumber(String line) {
+        if (!PAGE_NUMBER.matcher(line).matches()) return null;
+        Matcher digits = DIGITS.matcher(line);
+        return digits.find() ? Integer.parseInt(digits.group()) : null;
+    }
+
+    // Indexes of the first and last EDGE_LINES non-blank lines, ascending
+    private static List<Integer> edgeIndexes(List<String> page) {
+        List<Integer> nonBlank = new ArrayList<>();
+        for (int i = 0; i < page.size(); i++) {
+            if (!page.get(i).isBlank()) nonBlank.add(i);
+        }
+        if (nonBlank.size() <= EDGE_LINES * 2) return nonBlank;
+
+        List<Integer> edges = new ArrayList<>(nonBlank.subList(0, EDGE_LINES));
+        edges.addAll(nonBlank.subList(nonBlank.size() - EDGE_LINES, nonBlank.size()));
+        return edges;
+    }
+
+    // Normalised line with page-number-like numbers replaced, so "Page 3 of 9" matches "Page 4 of 9";
+    // empty when the line must not be treated as boilerplate
+    private static String edgeKey(String line, int pageNumber, int pageCount) {
+        String key = HORIZONTAL_SPACE.matcher(line).replaceAll(" ").strip().toLowerCase();
+        // Very long lines are content, not running headers
+        if (key.length() > 120 || TEST_CASE_LINE.matcher(key).find()) return "";
+        // Bare numbers are page numbers only when they follow the pages; see pageNumbering
+        if (PAGE_NUMBER.matcher(key).matches()) return "";
+
+        Matcher digits = DIGITS.matcher(key);
+        StringBuilder normalised = new StringBuilder();
+        while (digits.find()) {
+            String number = digits.group();
+            boolean pageLike = number.length() <= 4
+                    && (Math.abs(Integer.parseInt(number) - pageNumber) <= PAGE_NUMBER_OFFSET
+                        || Integer.parseInt(number) == pageCount);
+            digits.appendReplacement(normalised, pageLike ? "#" : number);
+        }
+        digits.appendTail(normalised);
+        return normalised.toString();
+    }
+}
@@ -0,0 +1,108 @@
+package citu.stde.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs the LLM validation gate and the scoring call side by side when the pre-screen could not
+ * decide, so a valid document waits for one LLM latency instead of two.
+ *
+ * Scoring starts speculatively on a virtual thread. If validation says NO (or fails) the scoring
+ * future is cancelled; a call already on the wire may still finish, and is counted as wasted.
+ */
+@Service
+public class SpeculativeEvaluationService {
+
+    @Value("${app.evaluation.speculative.enabled:true}")
+    private boolean enabled;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final LongAdder speculations = new LongAdder();
+    private final LongAdder serialRuns = new LongAdder();
+    private final LongAdder scoringUsed = new LongAdder();
+    private final LongAdder discardedCompleted = new LongAdder();
+    private final LongAdder discardedCancelled = new LongAdder();
+    private final LongAdder wastedScoringMillis = new LongAdder();
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return the scoring result, or empty when validation rejected the document
+     */
+    public <T> Optional<T> validateAndScore(Supplier<Boolean> validation, Supplier<T> scoring) {
+        if (!enabled) {
+            serialRuns.increment();
+            return validation.get() ? Optional.of(scoring.get()) : Optional.empty();
+        }
+
+        speculations.increment();
+        long start = System.nanoTime();
+        Future<T> speculativeScore = executor.submit(scoring::get);
+
+        boolean valid;
+        try {
+            valid = validation.get();
+        } catch (RuntimeException e) {
+            discard(speculativeScore, start);
+            throw e;
+        }
+        if (!valid) {
+            discard(speculativeScore, start);
+            return Optional.empty();
+        }
+
+        try {
+            T result = speculativeScore.get();
+            scoringUsed.increment();
+            return Optional.of(result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            speculativeScore.cancel(true);
+            throw new RuntimeException("Evaluation interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException re ? re : new RuntimeException(cause.getMessage(), cause);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long discarded = discardedCompleted.sum() + discardedCancelled.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("speculativeRuns", speculations.sum());
+        stats.put("serialRuns", serialRuns.sum());
+        stats.put("scoringUsed", scoringUsed.sum());
+        stats.put("scoringDiscarded", discarded);
+        // Discarded after the scoring call had already finished: a fully wasted LLM call
+        stats.put("discardedAfterCompletion", discardedCompleted.sum());
+        stats.put("discardedWhileRunning", discardedCancelled.sum());
+        stats.put("wastedRatio", speculations.sum() == 0 ? 0.0 : (double) discarded / speculations.sum());
+        stats.put("wastedScoringMillis", wastedScoringMillis.sum());
+        return stats;
+    }
+
+    private void discard(Future<?> speculativeScore, long startNanos) {
+        wastedScoringMillis.add((System.nanoTime() - startNanos) / 1_000_000);
+        if (speculativeScore.isDone()) {
+            discardedCompleted.increment();
+        } else {
+            speculativeScore.cancel(true);
+            discardedCancelled.increment();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package citu.stde.service;
+
+import citu.stde.dto.EvaluationResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Picks criterion scores and feedback out of the scoring JSON while it is still streaming, and
+ * hands each criterion to the listener once both of its fields are complete.
+ */
+class StreamingScoreParser {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static final List<String> CRITERIA = List.of("completeness", "clarity", "consistency", "verification", "overall");
+
+    // A number only counts once something follows it, so "8" of a streaming "85" is not reported
+    private static final Pattern SCORE = Pattern.compile("\"(\\w+)Score\"\\s*:\\s*(\\d{1,3})\\s*[,}\\s]");
+    private static final Pattern FEEDBACK = Pattern.compile("\"(\\w+)Feedback\"\\s*:\\s*(\"(?:[^\"\\\\]|\\\\.)*\")");
+
+    private final EvaluationProgressListener listener;
+    private final Map<String, Integer> scores = new HashMap<>();
+    private final Map<String, String> feedback = new HashMap<>();
+    private final Set<String> reported = new HashSet<>();
+
+    StreamingScoreParser(EvaluationProgressListener listener) {
+        this.listener = listener;
+    }
+
+    // The whole answer so far; called again with a longer text after every streamed batch
+    synchronized void accept(String partialJson) {
+        Matcher score = SCORE.matcher(partialJson);
+        while (score.find()) {
+            scores.put(score.group(1), Integer.parseInt(score.group(2)));
+        }
+        Matcher text = FEEDBACK.matcher(partialJson);
+        while (text.find()) {
+            try {
+                feedback.put(text.group(1), MAPPER.readValue(text.group(2), String.class));
+            } catch (JsonProcessingException e) {
+                // Malformed escape: the final parse decides
+            }
+        }
+        for (String criterion : CRITERIA) {
+            if (scores.containsKey(criterion) && feedback.containsKey(criterion)) {
+                report(criterion, scores.get(criterion), feedback.get(criterion));
+            }
+        }
+    }
+
+    // Reports whatever the stream did not (non-streamed or chunked scoring, unparseable partials)
+    synchronized void finish(EvaluationResponse response) {
+        report("completeness", response.completenessScore(), response.completenessFeedback());
+        report("clarity", response.clarityScore(), response.clarityFeedback());
+        report("consistency", response.consistencyScore(), response.consistencyFeedback());
+        report("verification", response.verificationScore(), response.verificationFeedback());
+        report("overall", response.overallScore(), response.overallFeedback());
+    }
+
+    private void report(String criterion, Integer score, String text) {
+        if (score == null || !reported.add(criterion)) return;
+        listener.criterion(criterion, score, text != null ? text : "");
+    }
+}
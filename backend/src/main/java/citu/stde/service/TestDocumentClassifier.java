@@ -0,0 +1,145 @@
+package citu.stde.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process pre-screen for "is this a software testing document?".
+ *
+ * Scores the extracted text on signals test documents share (test case ids, expected/actual results,
+ * preconditions, numbered steps, pass/fail, test plan vocabulary). Clear cases are accepted or rejected
+ * locally; only the ambiguous band between {@code reject-below} and {@code accept-at} still goes to
+ * the LLM validation prompt.
+ */
+@Service
+public class TestDocumentClassifier {
+
+    public enum Verdict { ACCEPT, REJECT, AMBIGUOUS }
+
+    // Signals are counted on the opening part only; enough to decide and keeps the scan bounded
+    private static final int MAX_SCAN_CHARS = 100_000;
+    private static final int MIN_CHARS = 200;
+
+    private static final List<Signal> SIGNALS = List.of(
+            new Signal("testCaseIds", 6, 30,
+                    "(?-i:\\b(?:TC|TS|TID|UT|IT|ST|UAT)[\\s#:_-]?\\d{1,4}\\b)|\\btest[\\s_-]*case[\\s#:_-]*(?:id|no\\.?|number)?[\\s#:_-]*\\d+"),
+            new Signal("expectedActual", 8, 24,
+                    "\\b(?:expected|actual)\\s+(?:results?|outputs?|outcomes?|behaviou?r)\\b"),
+            new Signal("conditions", 6, 12,
+                    "\\b(?:pre|post)[\\s-]?conditions?\\b"),
+            new Signal("steps", 5, 15,
+                    "\\b(?:test\\s+steps?|steps?\\s+to\\s+(?:reproduce|execute)|test\\s+data|test\\s+input)\\b"),
+            new Signal("numberedSteps", 1, 8,
+                    "(?m)^\\s*(?:step\\s*)?\\d{1,2}[.)]\\s+\\S"),
+            new Signal("passFail", 2, 12,
+                    "\\b(?:pass(?:ed)?|fail(?:ed)?|blocked|not\\s+run)\\b"),
+            new Signal("testVocabulary", 3, 24,
+                    "\\btest\\s+(?:plan|scenarios?|suites?|cases?|environment|scripts?|reports?|summary|strategy|objectives?|coverage|execution|items?)\\b"
+                    + "|\\b(?:acceptance\\s+criteria|regression|unit\\s+test(?:ing)?|integration\\s+test(?:ing)?|system\\s+test(?:ing)?"
+                    + "|traceability|defects?|bug\\s+reports?|severity|features\\s+to\\s+be\\s+tested|pass/fail\\s+criteria"
+                    + "|suspension\\s+criteria|entry\\s+criteria|exit\\s+criteria|test\\s+deliverables)\\b"));
+
+    @Value("${app.evaluation.prescreen.enabled:true}")
+    private boolean enabled;
+
+    // Scores at or above this are accepted without the LLM
+    @Value("${app.evaluation.prescreen.accept-at:45}")
+    private int acceptAt;
+
+    // Scores below this are rejected without the LLM
+    @Value("${app.evaluation.prescreen.reject-below:8}")
+    private int rejectBelow;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder ambiguous = new LongAdder();
+    private final LongAdder fallbackYes = new LongAdder();
+    private final LongAdder fallbackNo = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    public Verdict classify(String text) {
+        if (!enabled) {
+            ambiguous.increment();
+            return Verdict.AMBIGUOUS;
+        }
+        long start = System.nanoTime();
+        Verdict verdict = verdictFor(text);
+        totalNanos.add(System.nanoTime() - start);
+
+        switch (verdict) {
+            case ACCEPT -> accepted.increment();
+            case REJECT -> rejected.increment();
+            case AMBIGUOUS -> ambiguous.increment();
+        }
+        return verdict;
+    }
+
+    // What the LLM said for an ambiguous document; tells us whether the band is tuned well
+    public void recordFallback(boolean valid) {
+        if (valid) fallbackYes.increment();
+        else fallbackNo.increment();
+    }
+
+    public int score(String text) {
+        CharSequence scanned = text.length() > MAX_SCAN_CHARS ? text.subSequence(0, MAX_SCAN_CHARS) : text;
+        int score = 0;
+        for (Signal signal : SIGNALS) {
+            score += signal.score(scanned);
+        }
+        return score;
+    }
+
+    public Map<String, Object> getStats() {
+        long decided = accepted.sum() + rejected.sum();
+        long total = decided + ambiguous.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("acceptAt", acceptAt);
+        stats.put("rejectBelow", rejectBelow);
+        stats.put("accepted", accepted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("ambiguous", ambiguous.sum());
+        stats.put("localDecisionRatio", total == 0 ? 0.0 : (double) decided / total);
+        stats.put("llmFallbackYes", fallbackYes.sum());
+        stats.put("llmFallbackNo", fallbackNo.sum());
+        stats.put("avgClassifyMicros", total == 0 ? 0 : totalNanos.sum() / 1000 / total);
+        return stats;
+    }
+
+    private Verdict verdictFor(String text) {
+        // Too little text to judge locally
+        if (text == null || text.isBlank() || text.length() < MIN_CHARS) return Verdict.AMBIGUOUS;
+
+        int score = score(text);
+        if (score >= acceptAt) return Verdict.ACCEPT;
+        if (score < rejectBelow) return Verdict.REJECT;
+        return Verdict.AMBIGUOUS;
+    }
+
+    /**
+     * One family of signals: each match is worth {@code weight} points, capped at {@code cap}
+     * so a single repeated keyword cannot carry a document on its own.
+     */
+    private record Signal(String name, int weight, int cap, Pattern pattern) {
+
+        Signal(String name, int weight, int cap, String regex) {
+            this(name, weight, cap, Pattern.compile(regex, Pattern.CASE_INSENSITIVE));
+        }
+
+        int score(CharSequence text) {
+            Matcher matcher = pattern.matcher(text);
+            int points = 0;
+            while (points < cap && matcher.find()) {
+                points += weight;
+            }
+            return Math.min(points, cap);
+        }
+    }
+}
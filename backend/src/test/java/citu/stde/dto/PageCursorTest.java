@@ -0,0 +1,59 @@
+package citu.stde.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PageCursorTest {
+
+	@Test
+	void encodedCursorDecodesToTheSamePosition() {
+		PageCursor cursor = new PageCursor(Instant.parse("2025-03-14T09:26:53.589793238Z"), UUID.randomUUID());
+
+		String token = cursor.encode();
+
+		assertTrue(token.matches("[A-Za-z0-9_-]+"), "token must be URL safe: " + token);
+		assertEquals(cursor, PageCursor.decode(token));
+	}
+
+	@Test
+	void firstCursorSurvivesARoundTrip() {
+		assertEquals(PageCursor.FIRST, PageCursor.decode(PageCursor.FIRST.encode()));
+	}
+
+	@Test
+	void missingCursorMeansTheFirstPage() {
+		assertSame(PageCursor.FIRST, PageCursor.decode(null));
+		assertSame(PageCursor.FIRST, PageCursor.decode(""));
+		assertSame(PageCursor.FIRST, PageCursor.decode("   "));
+	}
+
+	@Test
+	void malformedCursorIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not base64!"));
+		assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(token("1700000000:0")));
+		assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(token("1700000000:0:not-a-uuid")));
+		assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(token("soon:0:" + UUID.randomUUID())));
+	}
+
+	@Test
+	void pageSizeIsClamped() {
+		assertEquals(PageCursor.DEFAULT_PAGE_SIZE, PageCursor.pageSize(null));
+		assertEquals(1, PageCursor.pageSize(0));
+		assertEquals(1, PageCursor.pageSize(-5));
+		assertEquals(50, PageCursor.pageSize(50));
+		assertEquals(PageCursor.MAX_PAGE_SIZE, PageCursor.pageSize(10_000));
+	}
+
+	private static String token(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,138 @@
+package citu.stde.service;
+
+import citu.stde.entity.Classroom;
+import citu.stde.entity.Document;
+import citu.stde.entity.DocumentStatus;
+import citu.stde.entity.Evaluation;
+import citu.stde.entity.User;
+import citu.stde.entity.UserType;
+import citu.stde.repository.ClassroomRepository;
+import citu.stde.repository.DocumentRepository;
+import citu.stde.repository.EvaluationRepository;
+import citu.stde.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Listings must cost one statement however many rows they return (no per-row user / score lookups)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class DocumentListingQueryCountTest {
+
+	@Autowired private DocumentService documentService;
+	@Autowired private EvaluationService evaluationService;
+	@Autowired private UserRepository userRepository;
+	@Autowired private ClassroomRepository classroomRepository;
+	@Autowired private DocumentRepository documentRepository;
+	@Autowired private EvaluationRepository evaluationRepository;
+	@Autowired private EntityManager entityManager;
+	@Autowired private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void enableStatistics() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	void classroomListingIsOneQuery() {
+		Classroom small = classroomWithEvaluatedSubmissions(3);
+		Classroom large = classroomWithEvaluatedSubmissions(25);
+
+		assertEquals(1, statementsFor(() -> documentService.getDocumentsByClass(small.getId(), null, null)));
+		assertEquals(1, statementsFor(() -> documentService.getDocumentsByClass(large.getId(), null, null)));
+
+		// Later pages seek from the cursor: same single statement as the first
+		String cursor = documentService.getDocumentsByClass(large.getId(), null, 10).nextCursor();
+		assertEquals(1, statementsFor(() -> documentService.getDocumentsByClass(large.getId(), cursor, 10)));
+	}
+
+	@Test
+	void recentActivityIsOneQuery() {
+		Classroom classroom = classroomWithEvaluatedSubmissions(15);
+
+		assertEquals(1, statementsFor(() -> documentService.getRecentSubmissions(classroom.getTeacherId(), 10)));
+	}
+
+	@Test
+	void userListingsAreOneQuery() {
+		User student = student();
+		Classroom classroom = classroom();
+		for (int i = 0; i < 12; i++) {
+			evaluatedSubmission(student, classroom);
+		}
+		flushAndClear();
+
+		assertEquals(1, statementsFor(() -> documentService.getUserDocuments(student.getId(), null, null)));
+		assertEquals(1, statementsFor(() -> documentService.getDocumentsByClassAndStudent(classroom.getId(), student.getId(), null, null)));
+		assertEquals(1, statementsFor(() -> evaluationService.getUserEvaluations(student.getId(), null, null)));
+	}
+
+	private long statementsFor(Supplier<?> listing) {
+		statistics.clear();
+		listing.get();
+		return statistics.getPrepareStatementCount();
+	}
+
+	private Classroom classroomWithEvaluatedSubmissions(int count) {
+		Classroom classroom = classroom();
+		for (int i = 0; i < count; i++) {
+			evaluatedSubmission(student(), classroom);
+		}
+		flushAndClear();
+		return classroom;
+	}
+
+	private void evaluatedSubmission(User student, Classroom classroom) {
+		Document document = documentRepository.save(Document.builder()
+				.user(student)
+				.classroom(classroom)
+				.filename("test-plan.pdf")
+				.fileType("application/pdf")
+				.fileSize(1024L)
+				.status(DocumentStatus.COMPLETED)
+				.isSubmitted(true)
+				.build());
+		evaluationRepository.save(Evaluation.builder()
+				.document(document)
+				.userId(student.getId())
+				.overallScore(80)
+				.build());
+	}
+
+	private User student() {
+		String unique = UUID.randomUUID().toString();
+		return userRepository.save(User.builder()
+				.firstname("Student")
+				.lastname(unique.substring(0, 8))
+				.email(unique + "@example.com")
+				.userType(UserType.STUDENT)
+				.build());
+	}
+
+	private Classroom classroom() {
+		return classroomRepository.save(Classroom.builder()
+				.name("Software Testing")
+				.section("A")
+				.classCode(UUID.randomUUID().toString().substring(0, 8))
+				.teacherId(UUID.randomUUID())
+				.build());
+	}
+
+	private void flushAndClear() {
+		entityManager.flush();
+		entityManager.clear();
+	}
+}
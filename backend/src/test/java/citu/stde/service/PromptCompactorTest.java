@@ -0,0 +1,131 @@
+package citu.stde.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PromptCompactorTest {
+
+	private PromptCompactor compactor;
+
+	@BeforeEach
+	void setUp() {
+		compactor = new PromptCompactor();
+		ReflectionTestUtils.setField(compactor, "enabled", true);
+	}
+
+	@Test
+	void repeatedHeadersFootersAndPageNumbersAreRemoved() {
+		List<String> pages = new ArrayList<>();
+		for (int page = 1; page <= 4; page++) {
+			pages.add(lines("ACME Login Module - Test Plan", body(page), "Confidential", String.valueOf(page)));
+		}
+
+		String text = compact(pages);
+
+		assertFalse(text.contains("ACME Login Module"));
+		assertFalse(text.contains("Confidential"));
+		assertEquals(0, text.lines().filter(line -> line.matches("\\d+")).count());
+		assertEquals(4 * 7, text.lines().count());
+	}
+
+	@Test
+	void pageNumbersOffsetFromThePhysicalPageAreRemoved() {
+		// Unnumbered cover, then printed numbers 1..4 on physical pages 2..5
+		List<String> pages = new ArrayList<>();
+		pages.add(lines("Cover page", body(0)));
+		for (int printed = 1; printed <= 4; printed++) {
+			pages.add(lines(body(printed), "- " + printed + " -"));
+		}
+
+		String text = compact(pages);
+
+		assertFalse(text.contains(" -"));
+		assertEquals(1 + 5 * 7, text.lines().count());
+	}
+
+	@Test
+	void bareNumbersFromTablesAreKept() {
+		// Table cells extracted one per line at the page edges; none of them follow the page index
+		List<String> pages = new ArrayList<>();
+		for (int page = 1; page <= 4; page++) {
+			pages.add(lines("Attempts", "3", "12", body(page), "Expected count", "7", "250"));
+		}
+
+		String text = compact(pages);
+
+		for (String cell : List.of("3", "12", "7", "250")) {
+			assertEquals(4, count(text, cell), cell);
+		}
+	}
+
+	@Test
+	void tableCellsEqualToThePageNumberAreKept() {
+		List<String> pages = new ArrayList<>();
+		for (int page = 1; page <= 4; page++) {
+			// Step 2 sits at the top edge of every page; on page 2 it equals the printed page number
+			pages.add(lines("Step", "2", body(page), String.valueOf(page)));
+		}
+
+		String text = compact(pages);
+
+		assertEquals(4, count(text, "2"));
+		assertEquals(0, count(text, "1") + count(text, "3") + count(text, "4"));
+	}
+
+	@Test
+	void pageNumberPrintedAboveARunningFooterIsRemoved() {
+		List<String> pages = new ArrayList<>();
+		for (int page = 1; page <= 4; page++) {
+			pages.add(lines(body(page), String.valueOf(page), "Confidential"));
+		}
+
+		String text = compact(pages);
+
+		assertFalse(text.contains("Confidential"));
+		assertEquals(0, text.lines().filter(line -> line.matches("\\d+")).count());
+	}
+
+	@Test
+	void explicitPageLabelsLeadersAndBordersAreCompacted() {
+		String text = compactor.compact("Introduction ........ 4\nPage 3 of 12\n+------+------+\n| TC-1 |  |  | Pass |").text();
+
+		assertEquals(List.of("Introduction ... 4", "| TC-1 | Pass |"), text.lines().toList());
+	}
+
+	@Test
+	void fewerThanThreePagesKeepTheirEdges() {
+		String text = compactor.compact("Header\nBody one\n1\fHeader\nBody two\n2").text();
+
+		assertTrue(text.contains("Header"));
+		assertEquals(List.of("Header", "Body one", "1", "Header", "Body two", "2"), text.lines().toList());
+	}
+
+	// Seven distinct content lines, long enough that the middle ones are never page edges
+	private static String body(int page) {
+		List<String> lines = new ArrayList<>();
+		for (char line = 'a'; line <= 'g'; line++) {
+			lines.add("Content line " + line + " of section " + (char) ('A' + page) + " describing the login flow.");
+		}
+		return String.join("\n", lines);
+	}
+
+	private static String lines(String... lines) {
+		return String.join("\n", lines);
+	}
+
+	private String compact(List<String> pages) {
+		return compactor.compact(String.join("\f", pages)).text();
+	}
+
+	private static long count(String text, String line) {
+		return text.lines().filter(line::equals).count();
+	}
+}
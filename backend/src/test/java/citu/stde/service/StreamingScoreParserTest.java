@@ -0,0 +1,71 @@
+package citu.stde.service;
+
+import citu.stde.dto.EvaluationResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingScoreParserTest {
+
+	private final List<String> reported = new ArrayList<>();
+
+	private StreamingScoreParser parser;
+
+	@BeforeEach
+	void setUp() {
+		parser = new StreamingScoreParser(new EvaluationProgressListener() {
+			@Override
+			public void criterion(String criterion, Integer score, String feedback) {
+				reported.add(criterion + "=" + score + ":" + feedback);
+			}
+		});
+	}
+
+	@Test
+	void scoreStillStreamingIsNotReported() {
+		parser.accept("{\"completenessFeedback\": \"Covers all modules\", \"completenessScore\": 8");
+		assertTrue(reported.isEmpty());
+
+		parser.accept("{\"completenessFeedback\": \"Covers all modules\", \"completenessScore\": 85");
+		assertTrue(reported.isEmpty());
+
+		parser.accept("{\"completenessFeedback\": \"Covers all modules\", \"completenessScore\": 85,");
+		assertEquals(List.of("completeness=85:Covers all modules"), reported);
+	}
+
+	@Test
+	void criterionWaitsForItsFeedbackToClose() {
+		parser.accept("{\"clarityScore\": 70, \"clarityFeedback\": \"Steps are");
+		assertTrue(reported.isEmpty());
+
+		parser.accept("{\"clarityScore\": 70, \"clarityFeedback\": \"Steps are \\\"clear\\\"\"");
+		assertEquals(List.of("clarity=70:Steps are \"clear\""), reported);
+	}
+
+	@Test
+	void eachCriterionIsReportedOnce() {
+		String partial = "{\"clarityScore\": 70, \"clarityFeedback\": \"Good\", \"consistencyScore\": 60 }";
+		parser.accept(partial);
+		parser.accept(partial + "  ");
+		parser.finish(new EvaluationResponse(null, null, 70, "Good", 60, "Fine", null, null, null, null));
+
+		assertEquals(List.of("clarity=70:Good", "consistency=60:Fine"), reported);
+	}
+
+	@Test
+	void finishReportsWhatTheStreamMissed() {
+		parser.finish(new EvaluationResponse(90, "Complete", 80, null, 70, "Consistent", 60, "Verified", 75, "Overall"));
+
+		assertEquals(List.of(
+				"completeness=90:Complete",
+				"clarity=80:",
+				"consistency=70:Consistent",
+				"verification=60:Verified",
+				"overall=75:Overall"), reported);
+	}
+}
@@ -0,0 +1,87 @@
+package citu.stde.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestDocumentClassifierTest {
+
+	private static final String FILLER = "The committee met on Tuesday to review the budget for the spring festival. ".repeat(4);
+
+	private static final String TEST_CASES = """
+			Test Plan for the Login Module
+			TC-001 Valid login
+			Precondition: user account exists
+			Expected Result: dashboard is shown
+			Actual Result: dashboard is shown  PASS
+			TC-002 Invalid password
+			Precondition: user account exists
+			Expected Result: error message
+			Actual Result: error message  PASS
+			TC-003 Locked account
+			Expected Result: account locked notice
+			Actual Result: no notice  FAIL
+			""";
+
+	private TestDocumentClassifier classifier;
+
+	@BeforeEach
+	void setUp() {
+		classifier = new TestDocumentClassifier();
+		thresholds(45, 8);
+		ReflectionTestUtils.setField(classifier, "enabled", true);
+	}
+
+	@Test
+	void clearTestDocumentIsAcceptedLocally() {
+		assertTrue(classifier.score(TEST_CASES + FILLER) >= 45);
+		assertEquals(TestDocumentClassifier.Verdict.ACCEPT, classifier.classify(TEST_CASES + FILLER));
+	}
+
+	@Test
+	void unrelatedDocumentIsRejectedLocally() {
+		assertEquals(0, classifier.score(FILLER));
+		assertEquals(TestDocumentClassifier.Verdict.REJECT, classifier.classify(FILLER));
+	}
+
+	@Test
+	void acceptAtIsInclusiveAndRejectBelowIsExclusive() {
+		String text = "This test plan covers the regression suite. " + FILLER;
+		int score = classifier.score(text);
+		assertTrue(score > 0);
+
+		thresholds(score, 0);
+		assertEquals(TestDocumentClassifier.Verdict.ACCEPT, classifier.classify(text));
+
+		thresholds(score + 1, score);
+		assertEquals(TestDocumentClassifier.Verdict.AMBIGUOUS, classifier.classify(text));
+
+		thresholds(score + 10, score + 1);
+		assertEquals(TestDocumentClassifier.Verdict.REJECT, classifier.classify(text));
+	}
+
+	@Test
+	void oneRepeatedSignalIsCapped() {
+		// testCaseIds is worth 6 per match, capped at 30
+		String ids = "TC-1 ".repeat(100);
+		assertEquals(30, classifier.score(ids + FILLER));
+		assertEquals(TestDocumentClassifier.Verdict.AMBIGUOUS, classifier.classify(ids + FILLER));
+	}
+
+	@Test
+	void shortOrDisabledGoesToTheModel() {
+		assertEquals(TestDocumentClassifier.Verdict.AMBIGUOUS, classifier.classify("TC-001 Expected Result"));
+		assertEquals(TestDocumentClassifier.Verdict.AMBIGUOUS, classifier.classify(""));
+
+		ReflectionTestUtils.setField(classifier, "enabled", false);
+		assertEquals(TestDocumentClassifier.Verdict.AMBIGUOUS, classifier.classify(TEST_CASES + FILLER));
+	}
+
+	private void thresholds(int acceptAt, int rejectBelow) {
+		ReflectionTestUtils.setField(classifier, "acceptAt", acceptAt);
+		ReflectionTestUtils.setField(classifier, "rejectBelow", rejectBelow);
+	}
+}
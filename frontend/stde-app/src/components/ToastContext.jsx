@@ -51,6 +51,13 @@ export function ToastProvider({ children }) {
         }, ANIMATION_DURATION);
     }, []);
 
+    // Changes the text of a toast that is still showing (e.g. a loading toast's progress)
+    const updateToast = useCallback((id, message) => {
+        setToasts(prev => prev.map(t =>
+            t.id === id ? { ...t, message } : t
+        ));
+    }, []);
+
     // Convenience methods
     const toast = {
         success: (message, duration) => addToast(message, 'success', duration),
@@ -59,6 +66,7 @@ export function ToastProvider({ children }) {
         info: (message, duration) => addToast(message, 'info', duration),
         loading: (message) => addToast(message, 'loading'),
         dismiss: (id) => removeToast(id),
+        update: (id, message) => updateToast(id, message),
     };
 
     return (
@@ -27,8 +27,9 @@ export default function AdminDashboard() {
         const data = await api.get('/admin/users');
         setUsers(data.data);
       } else if (activeTab === 'logs') {
-        const data = await api.get('/admin/logs');
-        setLogs(data.data);
+        // Latest page only; the endpoint is keyset-paginated
+        const data = await api.get('/admin/logs', { params: { limit: 100 } });
+        setLogs(data.data.items);
       } else if (activeTab === 'health') {
         const data = await api.get('/admin/health');
         setHealth(data.data);
@@ -206,8 +206,22 @@ export default function ClassroomDetails() {
     closeConfirmModal();
     setProcessingId(documentId);
     const loadingId = toast.loading('Running AI Analysis. Please Wait.');
+    const stageLabels = {
+      DOWNLOADING: 'Downloading document...',
+      EXTRACTING: 'Reading document...',
+      VALIDATING: 'Checking document type...',
+      SCORING: 'Scoring...'
+    };
+    const scored = [];
     try {
-      await evaluationService.evaluateDocument(documentId);
+      await evaluationService.evaluateDocumentStream(documentId, (event) => {
+        if (event.type === 'stage' && stageLabels[event.stage]) {
+          toast.update(loadingId, stageLabels[event.stage]);
+        } else if (event.type === 'criterion') {
+          scored.push(`${event.criterion.charAt(0).toUpperCase()}${event.criterion.slice(1)}: ${event.score}`);
+          toast.update(loadingId, `Scoring... ${scored.join(', ')}`);
+        }
+      });
       toast.dismiss(loadingId);
       toast.success('Analysis Complete!');
       loadClassroomData();
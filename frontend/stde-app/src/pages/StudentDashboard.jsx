@@ -21,11 +21,11 @@ export default function StudentDashboard() {
     try {
       // Fetch History & Doc counts in parallel
       const [historyData, docsData] = await Promise.all([
-        evaluationService.getUserEvaluations(),
+        evaluationService.getUserEvaluations(5),
         documentService.getUserDocuments()
       ]);
       
-      setRecentEvaluations(historyData.slice(0, 5)); // Show last 5
+      setRecentEvaluations(historyData.items); // Show last 5
       setTotalDocs(docsData.count || docsData.documents?.length || 0);
     } catch (error) {
       console.error("Dashboard load failed:", error);
@@ -32,10 +32,19 @@ const classroomService = {
   },
 
   // Get all classes - CHANGED TO /teacher
+  // The endpoint is cursor-paginated; follow nextCursor until the last page
   getAllClassrooms: async () => {
     try {
-      const response = await api.get('/classrooms/teacher'); // CHANGED THIS LINE
-      return response.data;
+      const classrooms = [];
+      let cursor = null;
+      do {
+        const params = { limit: 100 };
+        if (cursor) params.cursor = cursor;
+        const response = await api.get('/classrooms/teacher', { params });
+        classrooms.push(...response.data.items);
+        cursor = response.data.nextCursor;
+      } while (cursor);
+      return classrooms;
     } catch (error) {
       console.error("Failed to fetch classrooms", error);
       return [];
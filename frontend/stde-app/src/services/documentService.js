@@ -9,13 +9,16 @@ const documentService = {
   uploadDocument: async (file, classId = null) => {
     const token = authService.getToken();
     if (!token) throw new Error('No authentication token found');
-    const formData = new FormData();
-    formData.append('file', file);
-    if (classId) formData.append('classId', classId);
-    const response = await fetch(`${API_URL}/upload`, {
-      method: 'POST',
-      headers: { 'Authorization': `Bearer ${token}` },
-      body: formData
+    // Raw body: the server streams it into Drive instead of buffering a multipart form
+    const params = new URLSearchParams({ filename: file.name });
+    if (classId) params.append('classId', classId);
+    const response = await fetch(`${API_URL}/upload-stream?${params}`, {
+      method: 'PUT',
+      headers: {
+        'Authorization': `Bearer ${token}`,
+        'Content-Type': file.type || 'application/octet-stream'
+      },
+      body: file
     });
     const data = await response.json();
     if (!response.ok) throw new Error(data.error || 'Failed to upload document');
@@ -35,16 +38,25 @@ const documentService = {
     return data;
   },
 
+  // Cursor-paginated on the server; pages are fetched until nextCursor runs out
   getDocumentsByClass: async (classId) => {
     const token = authService.getToken();
     if (!token) throw new Error('No authentication token found');
-    const response = await fetch(`${API_URL}/classroom/${classId}`, {
-      method: 'GET',
-      headers: { 'Authorization': `Bearer ${token}`, 'Content-Type': 'application/json' }
-    });
-    const data = await response.json();
-    if (!response.ok) throw new Error(data.error || 'Failed to fetch class documents');
-    return data;
+    const documents = [];
+    let cursor = null;
+    do {
+      const params = new URLSearchParams({ limit: 100 });
+      if (cursor) params.append('cursor', cursor);
+      const response = await fetch(`${API_URL}/classroom/${classId}?${params}`, {
+        method: 'GET',
+        headers: { 'Authorization': `Bearer ${token}`, 'Content-Type': 'application/json' }
+      });
+      const data = await response.json();
+      if (!response.ok) throw new Error(data.error || 'Failed to fetch class documents');
+      documents.push(...data.items);
+      cursor = data.nextCursor;
+    } while (cursor);
+    return documents;
   },
 
   getUserDocuments: async () => {
@@ -1,8 +1,10 @@
 import authService from './authService';
 
 const API_URL = 'http://localhost:8080/api/evaluations';
+const JOB_POLL_INTERVAL_MS = 2000;
 
 const evaluationService = {
+  // The backend queues the evaluation (202 + job id); poll the job until it finishes
   evaluateDocument: async (documentId) => {
     const token = authService.getToken();
     if (!token) throw new Error('No authentication token found');
@@ -15,10 +17,112 @@ const evaluationService = {
       }
     });
 
-    const data = await response.json();
+    let job = await response.json();
     if (!response.ok) {
-      throw new Error(data.error || 'Failed to evaluate document');
+      throw new Error(job.error || 'Failed to evaluate document');
+    }
+
+    while (job.status === 'PROCESSING') {
+      await new Promise(resolve => setTimeout(resolve, JOB_POLL_INTERVAL_MS));
+      job = await evaluationService.getEvaluationJob(job.jobId);
+    }
+
+    if (job.status === 'FAILED') {
+      throw new Error(job.error || 'Failed to evaluate document');
+    }
+    return job.result;
+  },
+
+  // Same as evaluateDocument, but follows the job over Server-Sent Events: onEvent receives
+  // { type: 'stage', stage } and { type: 'criterion', criterion, score, feedback } as they happen
+  evaluateDocumentStream: async (documentId, onEvent = () => {}) => {
+    const token = authService.getToken();
+    if (!token) throw new Error('No authentication token found');
+
+    const response = await fetch(`${API_URL}/evaluate/${documentId}/stream`, {
+      method: 'POST',
+      headers: {
+        'Authorization': `Bearer ${token}`,
+        'Accept': 'text/event-stream'
+      }
+    });
+    if (!response.ok || !response.body) {
+      throw new Error('Failed to evaluate document');
+    }
+
+    const reader = response.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = '';
+    let job = null;
+
+    while (!job) {
+      const { value, done } = await reader.read();
+      if (done) break;
+      buffer += decoder.decode(value, { stream: true });
+
+      // Events are separated by a blank line; each has "event:" and "data:" lines
+      let boundary;
+      while ((boundary = buffer.search(/\r?\n\r?\n/)) !== -1) {
+        const rawEvent = buffer.slice(0, boundary);
+        buffer = buffer.slice(boundary).replace(/^\r?\n\r?\n/, '');
+
+        let type = 'message';
+        const dataLines = [];
+        for (const line of rawEvent.split(/\r?\n/)) {
+          if (line.startsWith('event:')) type = line.slice(6).trim();
+          else if (line.startsWith('data:')) dataLines.push(line.slice(5).trimStart());
+        }
+        if (dataLines.length === 0) continue;
+        const data = JSON.parse(dataLines.join('\n'));
+
+        if (type === 'done') job = data;
+        else onEvent({ type, ...data });
+      }
+    }
+
+    if (!job) {
+      throw new Error('Connection lost during evaluation');
+    }
+    if (job.status === 'FAILED') {
+      throw new Error(job.error || 'Failed to evaluate document');
     }
+    return job.result;
+  },
+
+  getEvaluationJob: async (jobId) => {
+    const token = authService.getToken();
+    if (!token) throw new Error('No authentication token found');
+    const response = await fetch(`${API_URL}/jobs/${jobId}`, {
+      method: 'GET',
+      headers: { 'Authorization': `Bearer ${token}` }
+    });
+    const data = await response.json();
+    if (!response.ok) throw new Error(data.error || 'Failed to fetch evaluation status');
+    return data;
+  },
+
+  // Teacher: evaluate every submitted document in a class (202 + batch); poll getEvaluationBatch for progress
+  evaluateClassroom: async (classId, includeEvaluated = false) => {
+    const token = authService.getToken();
+    if (!token) throw new Error('No authentication token found');
+    const response = await fetch(`${API_URL}/classroom/${classId}/evaluate-all?includeEvaluated=${includeEvaluated}`, {
+      method: 'POST',
+      headers: { 'Authorization': `Bearer ${token}` }
+    });
+    const data = await response.json();
+    if (!response.ok) throw new Error(data.error || 'Failed to start class evaluation');
+    return data;
+  },
+
+  getEvaluationBatch: async (batchId) => {
+    const token = authService.getToken();
+    if (!token) throw new Error('No authentication token found');
+    const response = await fetch(`${API_URL}/batches/${batchId}`, {
+      method: 'GET',
+      headers: { 'Authorization': `Bearer ${token}` }
+    });
+    const data = await response.json();
+    if (!response.ok) throw new Error(data.error || 'Failed to fetch class evaluation progress');
     return data;
   },
 
@@ -64,10 +168,13 @@ const evaluationService = {
     return data;
   },
 
-  getUserEvaluations: async () => {
+  // One page, newest first: { items, nextCursor }
+  getUserEvaluations: async (limit = 20, cursor = null) => {
     const token = authService.getToken();
     if (!token) throw new Error('No authentication token found');
-    const response = await fetch(`${API_URL}/user`, {
+    const params = new URLSearchParams({ limit });
+    if (cursor) params.append('cursor', cursor);
+    const response = await fetch(`${API_URL}/user?${params}`, {
       method: 'GET',
       headers: { 'Authorization': `Bearer ${token}` }
     });